@@ -5,6 +5,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import java.time.LocalDateTime;
@@ -26,6 +27,23 @@ import java.time.LocalDateTime;
       @UniqueConstraint(
           name = "uk_fulfillment_product_warehouse_store",
           columnNames = {"productId", "warehouseBusinessUnitCode", "storeId"})
+    },
+    // Each index leads with the columns a lookup filters on and carries the remaining key column,
+    // so a lookup by store, warehouse or product never has to read the table itself.
+    indexes = {
+      @Index(
+          name = "idx_fulfillment_store_warehouse",
+          columnList = "storeId, warehouseBusinessUnitCode, productId"),
+      @Index(
+          name = "idx_fulfillment_warehouse_product",
+          columnList = "warehouseBusinessUnitCode, productId, storeId"),
+      @Index(
+          name = "idx_fulfillment_product_store",
+          columnList = "productId, storeId, warehouseBusinessUnitCode"),
+      // keyset pagination of the by-store, by-warehouse and by-product listings
+      @Index(name = "idx_fulfillment_store_id", columnList = "storeId, id"),
+      @Index(name = "idx_fulfillment_warehouse_id", columnList = "warehouseBusinessUnitCode, id"),
+      @Index(name = "idx_fulfillment_product_id", columnList = "productId, id")
     })
 @Cacheable
 public class FulfillmentAssignment {
@@ -0,0 +1,35 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+/**
+ * Response DTO describing the outcome of one item of a batch fulfillment assignment request.
+ */
+public class FulfillmentAssignmentBatchResult {
+
+  /** Position of the item in the submitted batch, starting at 0. */
+  public int index;
+
+  public boolean success;
+
+  public FulfillmentAssignment assignment;
+
+  public String error;
+
+  public FulfillmentAssignmentBatchResult() {}
+
+  public static FulfillmentAssignmentBatchResult succeeded(
+      int index, FulfillmentAssignment assignment) {
+    FulfillmentAssignmentBatchResult result = new FulfillmentAssignmentBatchResult();
+    result.index = index;
+    result.success = true;
+    result.assignment = assignment;
+    return result;
+  }
+
+  public static FulfillmentAssignmentBatchResult failed(int index, String error) {
+    FulfillmentAssignmentBatchResult result = new FulfillmentAssignmentBatchResult();
+    result.index = index;
+    result.success = false;
+    result.error = error;
+    return result;
+  }
+}
@@ -0,0 +1,54 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the fulfillment assignment change feed. The id is the sequence number, which
+ * clients pass back as {@code since} to receive the changes that followed; {@link
+ * FulfillmentAssignmentChangeRepository} only hands out changes whose lower numbers have settled.
+ *
+ * <p>For {@link FulfillmentAssignmentEvent.Type#WAREHOUSE_REMOVED} only the warehouse code is set:
+ * every assignment of that warehouse is gone.
+ */
+@Entity
+@Table(name = "fulfillment_assignment_change")
+public class FulfillmentAssignmentChange {
+
+  @Id @GeneratedValue public Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  public FulfillmentAssignmentEvent.Type type;
+
+  public Long assignmentId;
+
+  public Long productId;
+
+  @Column(nullable = false)
+  public String warehouseBusinessUnitCode;
+
+  public Long storeId;
+
+  public LocalDateTime occurredAt;
+
+  public FulfillmentAssignmentChange() {}
+
+  static FulfillmentAssignmentChange of(FulfillmentAssignmentEvent event) {
+    FulfillmentAssignment assignment = event.getAssignment();
+    FulfillmentAssignmentChange change = new FulfillmentAssignmentChange();
+    change.type = event.getType();
+    change.assignmentId = assignment.id;
+    change.productId = assignment.productId;
+    change.warehouseBusinessUnitCode = assignment.warehouseBusinessUnitCode;
+    change.storeId = assignment.storeId;
+    change.occurredAt = LocalDateTime.now();
+    return change;
+  }
+}
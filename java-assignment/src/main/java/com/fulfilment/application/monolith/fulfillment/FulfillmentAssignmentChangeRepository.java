@@ -0,0 +1,184 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.query.NativeQuery;
+import org.jboss.logging.Logger;
+
+/**
+ * Stores the fulfillment assignment change feed.
+ *
+ * <p>Every {@link FulfillmentAssignmentEvent} is written in the transaction that fired it, so a
+ * change is visible exactly when the assignment change itself commits. Sequence numbers come from
+ * the pooled {@code fulfillment_assignment_change_SEQ}, so concurrent assignment changes do not
+ * wait for each other, but they may commit out of order. {@link #findSince} therefore stops below
+ * the lowest number whose transaction has not ended yet: a reader that has seen number n will never
+ * later find a change below n. The numbers in flight are only known to this JVM, so the feed
+ * relies on a single instance writing changes.
+ *
+ * <p>Changes older than {@code fulfillment.changes.retention} are deleted every {@code
+ * fulfillment.changes.cleanup-interval}. The single row of {@code fulfillment_change_counter}
+ * remembers the highest deleted number, so a client asking for changes since an earlier one can be
+ * told that it missed some.
+ */
+@ApplicationScoped
+public class FulfillmentAssignmentChangeRepository
+    implements PanacheRepository<FulfillmentAssignmentChange> {
+
+  private static final Logger LOGGER =
+      Logger.getLogger(FulfillmentAssignmentChangeRepository.class.getName());
+
+  private static final String COUNTER_TABLE = "fulfillment_change_counter";
+
+  @ConfigProperty(name = "fulfillment.changes.retention", defaultValue = "7D")
+  Duration retention;
+
+  @Inject TransactionSynchronizationRegistry transactions;
+
+  // numbers are handed out and retired under this lock, so a number taken later is always higher
+  private final ReentrantLock numbering = new ReentrantLock();
+
+  // numbers whose transactions have not ended yet
+  private final NavigableSet<Long> inFlight = new TreeSet<>();
+
+  // highest number handed out, or -1 until the first change or read
+  private long lastIssued = -1;
+
+  void onAssignmentEvent(@Observes FulfillmentAssignmentEvent event) {
+    FulfillmentAssignmentChange change = FulfillmentAssignmentChange.of(event);
+    numbering.lock();
+    try {
+      // assigns the id from the pooled sequence; the insert itself waits for the flush
+      persist(change);
+      inFlight.add(change.id);
+      lastIssued = Math.max(lastIssued, change.id);
+      transactions.registerInterposedSynchronization(retire(change.id));
+    } catch (RuntimeException e) {
+      if (change.id != null) {
+        inFlight.remove(change.id);
+      }
+      throw e;
+    } finally {
+      numbering.unlock();
+    }
+  }
+
+  /**
+   * Returns up to {@code maxResults} changes with a sequence number above {@code since}, leaving out
+   * every change at or above a number whose transaction may still commit.
+   */
+  public List<FulfillmentAssignmentChange> findSince(long since, int maxResults) {
+    return find("id > ?1 and id <= ?2", Sort.by("id"), since, committedThrough())
+        .page(0, maxResults)
+        .list();
+  }
+
+  /**
+   * Returns the highest sequence number below which every change has either committed or will
+   * never appear. Numbers handed out later are all higher, so a read that starts afterwards sees
+   * every change up to it.
+   */
+  long committedThrough() {
+    numbering.lock();
+    try {
+      if (!inFlight.isEmpty()) {
+        return inFlight.first() - 1;
+      }
+      if (lastIssued < 0) {
+        // the sequence continues above every change written before this JVM started
+        Long last =
+            getEntityManager()
+                .createQuery("select max(c.id) from FulfillmentAssignmentChange c", Long.class)
+                .getSingleResult();
+        lastIssued = last == null ? 0 : last;
+      }
+      return lastIssued;
+    } finally {
+      numbering.unlock();
+    }
+  }
+
+  /** Returns the highest sequence number removed by the retention cleanup, or 0 if none was. */
+  public long prunedThrough() {
+    return ((Number)
+            getEntityManager()
+                .createNativeQuery("SELECT prunedThrough FROM " + COUNTER_TABLE + " WHERE id = 1")
+                .getSingleResult())
+        .longValue();
+  }
+
+  @Scheduled(
+      every = "${fulfillment.changes.cleanup-interval:1H}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  @Transactional
+  void removeExpired() {
+    long removed = removeOlderThan(LocalDateTime.now().minus(retention));
+    if (removed > 0) {
+      LOGGER.debugf("Removed %d fulfillment assignment changes", removed);
+    }
+  }
+
+  /**
+   * Deletes every change up to the highest sequence number that occurred before {@code cutoff}.
+   *
+   * @return number of deleted changes
+   */
+  long removeOlderThan(LocalDateTime cutoff) {
+    Long last =
+        getEntityManager()
+            .createQuery(
+                "select max(c.id) from FulfillmentAssignmentChange c where c.occurredAt < ?1",
+                Long.class)
+            .setParameter(1, cutoff)
+            .getSingleResult();
+    if (last == null) {
+      return 0;
+    }
+    long removed = delete("id <= ?1", last);
+    counterUpdate("prunedThrough = ?1 WHERE id = 1 AND prunedThrough < ?1", last);
+    return removed;
+  }
+
+  private Synchronization retire(long id) {
+    return new Synchronization() {
+      @Override
+      public void beforeCompletion() {}
+
+      @Override
+      public void afterCompletion(int status) {
+        numbering.lock();
+        try {
+          inFlight.remove(id);
+        } finally {
+          numbering.unlock();
+        }
+      }
+    };
+  }
+
+  private void counterUpdate(String assignments, Object... params) {
+    NativeQuery<?> query =
+        getEntityManager()
+            .createNativeQuery("UPDATE " + COUNTER_TABLE + " SET " + assignments)
+            .unwrap(NativeQuery.class);
+    for (int i = 0; i < params.length; i++) {
+      query.setParameter(i + 1, params[i]);
+    }
+    // without a query space Hibernate would drop every second-level cache region on each change
+    query.addSynchronizedQuerySpace(COUNTER_TABLE).executeUpdate();
+  }
+}
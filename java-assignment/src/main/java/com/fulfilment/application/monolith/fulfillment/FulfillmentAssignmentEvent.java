@@ -0,0 +1,33 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+public class FulfillmentAssignmentEvent {
+
+  public enum Type {
+    CREATED,
+    DELETED,
+    // every assignment of the event's warehouse was removed; only the warehouse code is set
+    WAREHOUSE_REMOVED
+  }
+
+  private final FulfillmentAssignment assignment;
+  private final Type type;
+
+  public FulfillmentAssignmentEvent(FulfillmentAssignment assignment, Type type) {
+    this.assignment = assignment;
+    this.type = type;
+  }
+
+  public static FulfillmentAssignmentEvent warehouseRemoved(String warehouseBusinessUnitCode) {
+    FulfillmentAssignment assignment = new FulfillmentAssignment();
+    assignment.warehouseBusinessUnitCode = warehouseBusinessUnitCode;
+    return new FulfillmentAssignmentEvent(assignment, Type.WAREHOUSE_REMOVED);
+  }
+
+  public FulfillmentAssignment getAssignment() {
+    return assignment;
+  }
+
+  public Type getType() {
+    return type;
+  }
+}
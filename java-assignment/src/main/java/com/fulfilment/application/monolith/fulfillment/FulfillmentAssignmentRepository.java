@@ -1,126 +1,234 @@
 package com.fulfilment.application.monolith.fulfillment;
 
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseAssignmentStore;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.query.Query;
 
 @ApplicationScoped
-public class FulfillmentAssignmentRepository implements PanacheRepository<FulfillmentAssignment> {
+public class FulfillmentAssignmentRepository
+    implements PanacheRepository<FulfillmentAssignment>, WarehouseAssignmentStore {
+
+  private static final int SCROLL_FETCH_SIZE = 500;
+
+  private static final String UNIQUE_CONSTRAINT = "uk_fulfillment_product_warehouse_store";
+
+  @Inject Event<FulfillmentAssignmentEvent> assignmentEvent;
 
   /**
-   * Counts how many warehouses fulfill a specific product for a specific store.
-   *
-   * @param productId the product ID
-   * @param storeId the store ID
-   * @return number of distinct warehouses fulfilling this product for this store
+   * Counts with one {@code count(*)} aggregate, answered from the warehouse-leading index; no
+   * assignment is loaded.
    */
-  public long countWarehousesForProductAtStore(Long productId, Long storeId) {
-    return count("productId = ?1 and storeId = ?2", productId, storeId);
+  @Override
+  public long countByWarehouse(String buCode) {
+    return count("warehouseBusinessUnitCode", buCode);
   }
 
   /**
-   * Counts how many distinct warehouses fulfill a specific store.
+   * Removes all assignments of a warehouse with one bulk DELETE. The constraint index is told
+   * through a {@link FulfillmentAssignmentEvent} once the transaction commits.
+   */
+  @Override
+  public long removeByWarehouse(String buCode) {
+    long removed = delete("warehouseBusinessUnitCode = ?1", buCode);
+    if (removed > 0) {
+      assignmentEvent.fire(FulfillmentAssignmentEvent.warehouseRemoved(buCode));
+    }
+    return removed;
+  }
+
+  /**
+   * Inserts an assignment right away instead of at commit.
    *
-   * @param storeId the store ID
-   * @return number of distinct warehouses fulfilling this store
+   * @return {@code false} if the unique constraint rejected it as a duplicate; the transaction is
+   *     then unusable and must be rolled back
    */
-  public long countDistinctWarehousesForStore(Long storeId) {
-    return find("storeId = ?1", storeId)
-        .stream()
-        .map(a -> a.warehouseBusinessUnitCode)
-        .distinct()
-        .count();
+  public boolean insertUnlessDuplicate(FulfillmentAssignment assignment) {
+    try {
+      persist(assignment);
+      flush();
+      return true;
+    } catch (PersistenceException e) {
+      if (isUniqueViolation(e)) {
+        return false;
+      }
+      throw e;
+    }
   }
 
   /**
-   * Counts how many distinct products a warehouse stores.
+   * Finds one page of all assignments, ordered by id.
    *
-   * @param warehouseBusinessUnitCode the warehouse business unit code
-   * @return number of distinct products stored in this warehouse
+   * @param afterId id of the last assignment of the previous page, or null for the first page
+   * @param maxResults maximum number of assignments to return
+   * @return assignments with an id greater than {@code afterId}
    */
-  public long countDistinctProductsInWarehouse(String warehouseBusinessUnitCode) {
-    return find("warehouseBusinessUnitCode = ?1", warehouseBusinessUnitCode)
-        .stream()
-        .map(a -> a.productId)
-        .distinct()
-        .count();
+  public List<FulfillmentAssignment> findPage(Long afterId, int maxResults) {
+    return findPage(null, null, afterId, maxResults);
   }
 
   /**
-   * Finds all assignments for a specific store.
+   * Finds one page of the assignments for a specific store, ordered by id.
    *
    * @param storeId the store ID
+   * @param afterId id of the last assignment of the previous page, or null for the first page
+   * @param maxResults maximum number of assignments to return
    * @return list of fulfillment assignments for the store
    */
-  public List<FulfillmentAssignment> findByStoreId(Long storeId) {
-    return find("storeId = ?1", storeId).list();
+  public List<FulfillmentAssignment> findByStoreId(Long storeId, Long afterId, int maxResults) {
+    return findPage("storeId", storeId, afterId, maxResults);
   }
 
   /**
-   * Finds all assignments for a specific warehouse.
+   * Finds one page of the assignments for a specific warehouse, ordered by id.
    *
    * @param warehouseBusinessUnitCode the warehouse business unit code
+   * @param afterId id of the last assignment of the previous page, or null for the first page
+   * @param maxResults maximum number of assignments to return
    * @return list of fulfillment assignments for the warehouse
    */
-  public List<FulfillmentAssignment> findByWarehouse(String warehouseBusinessUnitCode) {
-    return find("warehouseBusinessUnitCode = ?1", warehouseBusinessUnitCode).list();
+  public List<FulfillmentAssignment> findByWarehouse(
+      String warehouseBusinessUnitCode, Long afterId, int maxResults) {
+    return findPage("warehouseBusinessUnitCode", warehouseBusinessUnitCode, afterId, maxResults);
   }
 
   /**
-   * Finds all assignments for a specific product.
+   * Finds one page of the assignments for a specific product, ordered by id.
    *
    * @param productId the product ID
+   * @param afterId id of the last assignment of the previous page, or null for the first page
+   * @param maxResults maximum number of assignments to return
    * @return list of fulfillment assignments for the product
    */
-  public List<FulfillmentAssignment> findByProductId(Long productId) {
-    return find("productId = ?1", productId).list();
+  public List<FulfillmentAssignment> findByProductId(
+      Long productId, Long afterId, int maxResults) {
+    return findPage("productId", productId, afterId, maxResults);
   }
 
   /**
-   * Checks if a specific assignment already exists.
+   * Reads the assignments matching the optional filters in id order through a forward-only database
+   * cursor and hands each one to {@code consumer}. Rows are fetched in chunks and mapped to
+   * unmanaged objects, so neither the persistence context nor the heap grows with the result size.
+   * Must be called inside a transaction.
    *
-   * @param productId the product ID
-   * @param warehouseBusinessUnitCode the warehouse business unit code
-   * @param storeId the store ID
-   * @return true if the assignment exists, false otherwise
+   * @param storeId only export assignments of this store, or null for all stores
+   * @param warehouseBusinessUnitCode only export assignments of this warehouse, or null for all
+   * @param productId only export assignments of this product, or null for all products
+   * @param consumer receives each assignment in id order
+   * @return number of exported assignments
    */
-  public boolean existsAssignment(
-      Long productId, String warehouseBusinessUnitCode, Long storeId) {
-    return count(
-            "productId = ?1 and warehouseBusinessUnitCode = ?2 and storeId = ?3",
-            productId,
-            warehouseBusinessUnitCode,
-            storeId)
-        > 0;
+  public long scrollForExport(
+      Long storeId,
+      String warehouseBusinessUnitCode,
+      Long productId,
+      Consumer<FulfillmentAssignment> consumer) {
+    List<String> conditions = new ArrayList<>();
+    if (storeId != null) {
+      conditions.add("a.storeId = :storeId");
+    }
+    if (warehouseBusinessUnitCode != null) {
+      conditions.add("a.warehouseBusinessUnitCode = :warehouseBusinessUnitCode");
+    }
+    if (productId != null) {
+      conditions.add("a.productId = :productId");
+    }
+    String hql =
+        "select a.id, a.productId, a.warehouseBusinessUnitCode, a.storeId, a.createdAt"
+            + " from FulfillmentAssignment a"
+            + (conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions))
+            + " order by a.id";
+
+    Query<Object[]> query =
+        getEntityManager().unwrap(Session.class).createQuery(hql, Object[].class);
+    if (storeId != null) {
+      query.setParameter("storeId", storeId);
+    }
+    if (warehouseBusinessUnitCode != null) {
+      query.setParameter("warehouseBusinessUnitCode", warehouseBusinessUnitCode);
+    }
+    if (productId != null) {
+      query.setParameter("productId", productId);
+    }
+
+    long exported = 0;
+    try (ScrollableResults<Object[]> rows =
+        query.setFetchSize(SCROLL_FETCH_SIZE).setReadOnly(true).scroll(ScrollMode.FORWARD_ONLY)) {
+      while (rows.next()) {
+        Object[] row = rows.get();
+        FulfillmentAssignment assignment = new FulfillmentAssignment();
+        assignment.id = (Long) row[0];
+        assignment.productId = (Long) row[1];
+        assignment.warehouseBusinessUnitCode = (String) row[2];
+        assignment.storeId = (Long) row[3];
+        assignment.createdAt = (LocalDateTime) row[4];
+        consumer.accept(assignment);
+        exported++;
+      }
+    }
+    return exported;
   }
 
   /**
-   * Checks if a warehouse is already assigned to a store (for any product).
-   *
-   * @param warehouseBusinessUnitCode the warehouse business unit code
-   * @param storeId the store ID
-   * @return true if the warehouse is already assigned to this store
+   * Streams the store, product and warehouse of every assignment, the columns {@link
+   * FulfillmentConstraintIndex} is built from, as unmanaged objects read through a database cursor.
+   * Nothing enters the persistence context. The caller must close the stream.
    */
-  public boolean isWarehouseAssignedToStore(String warehouseBusinessUnitCode, Long storeId) {
-    return count(
-            "warehouseBusinessUnitCode = ?1 and storeId = ?2",
-            warehouseBusinessUnitCode,
-            storeId)
-        > 0;
+  public Stream<FulfillmentAssignment> streamConstraintKeys() {
+    return getEntityManager()
+        .unwrap(Session.class)
+        .createQuery(
+            "select a.productId, a.warehouseBusinessUnitCode, a.storeId"
+                + " from FulfillmentAssignment a",
+            Object[].class)
+        .setFetchSize(SCROLL_FETCH_SIZE)
+        .setReadOnly(true)
+        .getResultStream()
+        .map(row -> new FulfillmentAssignment((Long) row[0], (String) row[1], (Long) row[2]));
   }
 
   /**
-   * Checks if a product is already stored in a warehouse (for any store).
-   *
-   * @param productId the product ID
-   * @param warehouseBusinessUnitCode the warehouse business unit code
-   * @return true if the product is already in this warehouse
+   * Keyset pagination: seeks past {@code afterId} on the (column, id) index instead of skipping
+   * rows, so every page costs the same regardless of its position.
    */
-  public boolean isProductInWarehouse(Long productId, String warehouseBusinessUnitCode) {
-    return count(
-            "productId = ?1 and warehouseBusinessUnitCode = ?2",
-            productId,
-            warehouseBusinessUnitCode)
-        > 0;
+  private List<FulfillmentAssignment> findPage(
+      String column, Object value, Long afterId, int maxResults) {
+    List<String> conditions = new ArrayList<>();
+    Parameters parameters = new Parameters();
+    if (column != null) {
+      conditions.add(column + " = :value");
+      parameters.and("value", value);
+    }
+    if (afterId != null) {
+      conditions.add("id > :afterId");
+      parameters.and("afterId", afterId);
+    }
+    return find(String.join(" and ", conditions), Sort.by("id"), parameters)
+        .page(0, maxResults)
+        .list();
+  }
+
+  /** Tells whether {@code e} was caused by the unique constraint on the assignment triple. */
+  private static boolean isUniqueViolation(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException violation) {
+        String name = violation.getConstraintName();
+        return name != null && name.toLowerCase().contains(UNIQUE_CONSTRAINT);
+      }
+    }
+    return false;
   }
 }
@@ -1,15 +1,21 @@
 package com.fulfilment.application.monolith.fulfillment;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.pagination.PageCursor;
 import com.fulfilment.application.monolith.products.Product;
 import com.fulfilment.application.monolith.products.ProductRepository;
 import com.fulfilment.application.monolith.stores.Store;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
@@ -18,8 +24,18 @@ import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
 import org.jboss.logging.Logger;
 
 /**
@@ -33,6 +49,7 @@ import org.jboss.logging.Logger;
  * </ul>
  */
 @Path("fulfillment")
+@RunOnVirtualThread
 @ApplicationScoped
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -41,10 +58,12 @@ public class FulfillmentAssignmentResource {
   private static final Logger LOGGER =
       Logger.getLogger(FulfillmentAssignmentResource.class.getName());
 
-  // Constraint constants
-  private static final int MAX_WAREHOUSES_PER_PRODUCT_PER_STORE = 2;
-  private static final int MAX_WAREHOUSES_PER_STORE = 3;
-  private static final int MAX_PRODUCTS_PER_WAREHOUSE = 5;
+  private static final int MAX_BATCH_SIZE = 1000;
+
+  static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+  private static final String NDJSON = "application/x-ndjson";
 
   @Inject FulfillmentAssignmentRepository repository;
 
@@ -52,9 +71,87 @@ public class FulfillmentAssignmentResource {
 
   @Inject WarehouseStore warehouseStore;
 
+  @Inject FulfillmentConstraintIndex constraintIndex;
+
+  @Inject FulfillmentConstraintLocks constraintLocks;
+
+  @Inject FulfillmentRouter router;
+
+  @Inject FulfillmentAssignmentChangeRepository changeRepository;
+
+  @Inject IdempotencyKeyStore idempotencyKeys;
+
+  @Inject Event<FulfillmentAssignmentEvent> assignmentEvent;
+
+  @Inject ObjectMapper objectMapper;
+
+  @GET
+  public Response getAll(
+      @QueryParam("limit") Integer limit, @QueryParam("cursor") String cursor) {
+    int pageSize = PageCursor.limit(limit);
+    return page(repository.findPage(PageCursor.decode(cursor), pageSize + 1), pageSize);
+  }
+
+  /**
+   * Streams the assignments matching the optional filters as newline-delimited JSON, one object per
+   * line in id order. Rows are written as they are read from the database cursor, so the response
+   * starts immediately and memory use does not depend on the number of assignments.
+   */
   @GET
-  public List<FulfillmentAssignment> getAll() {
-    return repository.listAll();
+  @Path("export")
+  @Produces(NDJSON)
+  public Response export(
+      @QueryParam("storeId") Long storeId,
+      @QueryParam("warehouseBusinessUnitCode") String warehouseCode,
+      @QueryParam("productId") Long productId) {
+    StreamingOutput body =
+        output ->
+            QuarkusTransaction.requiringNew()
+                .run(
+                    () -> {
+                      long exported =
+                          repository.scrollForExport(
+                              storeId,
+                              warehouseCode,
+                              productId,
+                              assignment -> writeLine(output, assignment));
+                      LOGGER.debugf("Exported %d fulfillment assignments", exported);
+                    });
+    return Response.ok(body, NDJSON).build();
+  }
+
+  /**
+   * Returns the assignment changes recorded after sequence number {@code since}, oldest first. A
+   * client continues with the id of the last change it received and is up to date once a page
+   * comes back empty. Without {@code since} the feed starts at the oldest retained change. Answers
+   * 410 if changes after {@code since} were already removed by the retention cleanup; the client
+   * then has to reload the assignments.
+   */
+  @GET
+  @Path("changes")
+  public List<FulfillmentAssignmentChange> getChanges(
+      @QueryParam("since") Long since, @QueryParam("limit") Integer limit) {
+    if (since != null && since < 0) {
+      throw new WebApplicationException("since must not be negative.", 400);
+    }
+    long prunedThrough = changeRepository.prunedThrough();
+    if (since != null && since < prunedThrough) {
+      throw new WebApplicationException(
+          "Changes up to sequence number " + prunedThrough + " are no longer retained.", 410);
+    }
+    return changeRepository.findSince(
+        since == null ? prunedThrough : since, PageCursor.limit(limit));
+  }
+
+  /** Lists the warehouses that fulfil a product for a store, with their current stock. */
+  @GET
+  @Path("routing")
+  public List<FulfillmentRoutingCandidate> route(
+      @QueryParam("productId") Long productId, @QueryParam("storeId") Long storeId) {
+    if (productId == null || storeId == null) {
+      throw new WebApplicationException("productId and storeId are required.", 400);
+    }
+    return router.route(productId, storeId);
   }
 
   @GET
@@ -69,28 +166,57 @@ public class FulfillmentAssignmentResource {
 
   @GET
   @Path("by-store/{storeId}")
-  public List<FulfillmentAssignment> getByStore(@PathParam("storeId") Long storeId) {
-    return repository.findByStoreId(storeId);
+  public Response getByStore(
+      @PathParam("storeId") Long storeId,
+      @QueryParam("limit") Integer limit,
+      @QueryParam("cursor") String cursor) {
+    int pageSize = PageCursor.limit(limit);
+    return page(
+        repository.findByStoreId(storeId, PageCursor.decode(cursor), pageSize + 1), pageSize);
   }
 
   @GET
   @Path("by-warehouse/{warehouseCode}")
-  public List<FulfillmentAssignment> getByWarehouse(
-      @PathParam("warehouseCode") String warehouseCode) {
-    return repository.findByWarehouse(warehouseCode);
+  public Response getByWarehouse(
+      @PathParam("warehouseCode") String warehouseCode,
+      @QueryParam("limit") Integer limit,
+      @QueryParam("cursor") String cursor) {
+    int pageSize = PageCursor.limit(limit);
+    return page(
+        repository.findByWarehouse(warehouseCode, PageCursor.decode(cursor), pageSize + 1),
+        pageSize);
   }
 
   @GET
   @Path("by-product/{productId}")
-  public List<FulfillmentAssignment> getByProduct(@PathParam("productId") Long productId) {
-    return repository.findByProductId(productId);
+  public Response getByProduct(
+      @PathParam("productId") Long productId,
+      @QueryParam("limit") Integer limit,
+      @QueryParam("cursor") String cursor) {
+    int pageSize = PageCursor.limit(limit);
+    return page(
+        repository.findByProductId(productId, PageCursor.decode(cursor), pageSize + 1), pageSize);
   }
 
+  /**
+   * Creates an assignment. When the request carries an {@code Idempotency-Key} header, a retry with
+   * the same key and body returns the originally created assignment without running the request
+   * again.
+   */
   @POST
   @Transactional
-  public Response create(FulfillmentAssignmentRequest request) {
+  public Response create(
+      FulfillmentAssignmentRequest request,
+      @HeaderParam(IDEMPOTENCY_KEY_HEADER) String idempotencyKey) {
     validateRequest(request);
 
+    if (idempotencyKey != null) {
+      Response replayed = replayOrReserve(idempotencyKey, request);
+      if (replayed != null) {
+        return replayed;
+      }
+    }
+
     // Validate that product exists
     Product product = productRepository.findById(request.productId);
     if (product == null) {
@@ -115,65 +241,32 @@ public class FulfillmentAssignmentResource {
           400);
     }
 
-    // Check if assignment already exists
-    if (repository.existsAssignment(
-        request.productId, request.warehouseBusinessUnitCode, request.storeId)) {
-      throw new WebApplicationException(
-          "This fulfillment assignment already exists.", 400);
-    }
-
-    // Constraint 1: Each Product can be fulfilled by max 2 different Warehouses per Store
-    long warehousesForProductAtStore =
-        repository.countWarehousesForProductAtStore(request.productId, request.storeId);
-    if (warehousesForProductAtStore >= MAX_WAREHOUSES_PER_PRODUCT_PER_STORE) {
-      throw new WebApplicationException(
-          "Product "
-              + request.productId
-              + " is already fulfilled by "
-              + MAX_WAREHOUSES_PER_PRODUCT_PER_STORE
-              + " warehouses for store "
-              + request.storeId
-              + ". Maximum reached.",
-          400);
-    }
-
-    // Constraint 2: Each Store can be fulfilled by max 3 different Warehouses
-    // Only check if this warehouse is not already assigned to this store
-    if (!repository.isWarehouseAssignedToStore(request.warehouseBusinessUnitCode, request.storeId)) {
-      long warehousesForStore = repository.countDistinctWarehousesForStore(request.storeId);
-      if (warehousesForStore >= MAX_WAREHOUSES_PER_STORE) {
-        throw new WebApplicationException(
-            "Store "
-                + request.storeId
-                + " is already fulfilled by "
-                + MAX_WAREHOUSES_PER_STORE
-                + " different warehouses. Maximum reached.",
-            400);
-      }
-    }
-
-    // Constraint 3: Each Warehouse can store max 5 types of Products
-    // Only check if this product is not already stored in this warehouse
-    if (!repository.isProductInWarehouse(request.productId, request.warehouseBusinessUnitCode)) {
-      long productsInWarehouse =
-          repository.countDistinctProductsInWarehouse(request.warehouseBusinessUnitCode);
-      if (productsInWarehouse >= MAX_PRODUCTS_PER_WAREHOUSE) {
-        throw new WebApplicationException(
-            "Warehouse '"
-                + request.warehouseBusinessUnitCode
-                + "' already stores "
-                + MAX_PRODUCTS_PER_WAREHOUSE
-                + " different products. Maximum reached.",
-            400);
-      }
+    // Hold the store and warehouse stripes until commit so concurrent requests
+    // cannot both pass the limits below
+    constraintLocks.lock(List.of(request.storeId), List.of(request.warehouseBusinessUnitCode));
+    String violation =
+        new FulfillmentConstraintChecker(constraintIndex)
+            .findViolation(request.productId, request.warehouseBusinessUnitCode, request.storeId);
+    if (violation != null) {
+      throw new WebApplicationException(violation, 400);
     }
 
-    // All validations passed, create the assignment
+    // All validations passed, create the assignment. The unique constraint still catches
+    // duplicates the index has not seen, e.g. rows inserted by another instance.
     FulfillmentAssignment assignment =
         new FulfillmentAssignment(
             request.productId, request.warehouseBusinessUnitCode, request.storeId);
     assignment.createdAt = LocalDateTime.now();
-    repository.persist(assignment);
+    if (!repository.insertUnlessDuplicate(assignment)) {
+      throw new WebApplicationException(FulfillmentConstraintChecker.DUPLICATE_MESSAGE, 400);
+    }
+    constraintLocks.recordCreated(assignment);
+    if (idempotencyKey != null) {
+      idempotencyKeys.respond(idempotencyKey, assignment);
+    }
+
+    assignmentEvent.fire(
+        new FulfillmentAssignmentEvent(assignment, FulfillmentAssignmentEvent.Type.CREATED));
 
     LOGGER.infof(
         "Created fulfillment assignment: Product %d -> Warehouse '%s' -> Store %d",
@@ -182,6 +275,51 @@ public class FulfillmentAssignmentResource {
     return Response.status(201).entity(assignment).build();
   }
 
+  /**
+   * Creates many assignments in one transaction. The valid assignments are inserted together;
+   * invalid items are reported and skipped and do not prevent the valid ones from being created.
+   */
+  @POST
+  @Path("batch")
+  @Transactional
+  public List<FulfillmentAssignmentBatchResult> createBatch(
+      List<FulfillmentAssignmentRequest> requests) {
+    List<FulfillmentAssignmentBatchResult> results = evaluate(requests, true);
+    List<FulfillmentAssignment> accepted =
+        results.stream().filter(r -> r.success).map(r -> r.assignment).toList();
+
+    // Inserts are grouped into JDBC batches on flush (see jdbc.statement-batch-size)
+    repository.persist(accepted);
+    repository.flush();
+    for (FulfillmentAssignment assignment : accepted) {
+      constraintLocks.recordCreated(assignment);
+      assignmentEvent.fire(
+          new FulfillmentAssignmentEvent(assignment, FulfillmentAssignmentEvent.Type.CREATED));
+    }
+
+    LOGGER.infof(
+        "Created %d of %d fulfillment assignments in batch", accepted.size(), requests.size());
+
+    return results;
+  }
+
+  /**
+   * Runs the checks of {@link #createBatch} without creating anything and reports, per candidate,
+   * whether it would be accepted or why it would be rejected. The lookups run in a read-only
+   * session that is never flushed, and no constraint locks are taken, so the answer reflects the
+   * committed state at the time of the call and may be overtaken by concurrent changes.
+   */
+  @POST
+  @Path("validate")
+  @Transactional
+  public List<FulfillmentAssignmentBatchResult> validate(
+      List<FulfillmentAssignmentRequest> requests) {
+    Session session = repository.getEntityManager().unwrap(Session.class);
+    session.setDefaultReadOnly(true);
+    session.setHibernateFlushMode(FlushMode.MANUAL);
+    return evaluate(requests, false);
+  }
+
   @DELETE
   @Path("{id}")
   @Transactional
@@ -191,6 +329,8 @@ public class FulfillmentAssignmentResource {
       throw new WebApplicationException("Fulfillment assignment with id " + id + " not found.", 404);
     }
     repository.delete(assignment);
+    assignmentEvent.fire(
+        new FulfillmentAssignmentEvent(assignment, FulfillmentAssignmentEvent.Type.DELETED));
     LOGGER.infof("Deleted fulfillment assignment with id %d", id);
     return Response.noContent().build();
   }
@@ -218,6 +358,11 @@ public class FulfillmentAssignmentResource {
       throw new WebApplicationException("Fulfillment assignment not found.", 404);
     }
 
+    assignmentEvent.fire(
+        new FulfillmentAssignmentEvent(
+            new FulfillmentAssignment(productId, warehouseCode, storeId),
+            FulfillmentAssignmentEvent.Type.DELETED));
+
     LOGGER.infof(
         "Deleted fulfillment assignment: Product %d -> Warehouse '%s' -> Store %d",
         productId, warehouseCode, storeId);
@@ -225,16 +370,159 @@ public class FulfillmentAssignmentResource {
     return Response.noContent().build();
   }
 
+  /**
+   * Builds a listing response from up to {@code pageSize + 1} rows. The extra row only signals
+   * that another page exists; its presence adds the next-page cursor header.
+   */
+  private Response page(List<FulfillmentAssignment> rows, int pageSize) {
+    if (rows.size() <= pageSize) {
+      return Response.ok(rows).build();
+    }
+    List<FulfillmentAssignment> items = rows.subList(0, pageSize);
+    return Response.ok(items)
+        .header(PageCursor.NEXT_CURSOR_HEADER, PageCursor.encode(items.get(pageSize - 1).id))
+        .build();
+  }
+
+  private void writeLine(OutputStream output, FulfillmentAssignment assignment) {
+    try {
+      output.write(objectMapper.writeValueAsBytes(assignment));
+      output.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Resolves products, stores and warehouses of a batch with one query each and applies the
+   * constraints item by item, including the items accepted earlier in the same batch. Accepted
+   * items are returned with a new, not yet persisted assignment.
+   */
+  private List<FulfillmentAssignmentBatchResult> evaluate(
+      List<FulfillmentAssignmentRequest> requests, boolean lockConstraints) {
+    if (requests == null || requests.isEmpty()) {
+      throw new WebApplicationException("At least one assignment is required.", 400);
+    }
+    if (requests.size() > MAX_BATCH_SIZE) {
+      throw new WebApplicationException(
+          "A batch may contain at most " + MAX_BATCH_SIZE + " assignments.", 400);
+    }
+
+    Set<Long> productIds = new HashSet<>();
+    Set<Long> storeIds = new HashSet<>();
+    Set<String> warehouseCodes = new HashSet<>();
+    for (FulfillmentAssignmentRequest request : requests) {
+      if (request != null && validationError(request) == null) {
+        productIds.add(request.productId);
+        storeIds.add(request.storeId);
+        warehouseCodes.add(request.warehouseBusinessUnitCode);
+      }
+    }
+
+    Set<Long> existingProducts = productRepository.findExistingIds(productIds);
+    Set<Long> existingStores = Store.findExistingIds(storeIds);
+    Set<String> activeWarehouses =
+        warehouseStore.findActiveByBusinessUnitCodes(warehouseCodes).stream()
+            .map(w -> w.businessUnitCode)
+            .collect(Collectors.toSet());
+
+    if (lockConstraints) {
+      constraintLocks.lock(storeIds, warehouseCodes);
+    }
+    FulfillmentConstraintChecker checker = new FulfillmentConstraintChecker(constraintIndex);
+    List<FulfillmentAssignmentBatchResult> results = new ArrayList<>(requests.size());
+    LocalDateTime now = LocalDateTime.now();
+
+    for (int i = 0; i < requests.size(); i++) {
+      FulfillmentAssignmentRequest request = requests.get(i);
+      String error = request == null ? "Assignment is required." : validationError(request);
+      if (error == null && !existingProducts.contains(request.productId)) {
+        error = "Product with id " + request.productId + " does not exist.";
+      }
+      if (error == null && !existingStores.contains(request.storeId)) {
+        error = "Store with id " + request.storeId + " does not exist.";
+      }
+      if (error == null && !activeWarehouses.contains(request.warehouseBusinessUnitCode)) {
+        error =
+            "Warehouse with business unit code '"
+                + request.warehouseBusinessUnitCode
+                + "' does not exist or is archived.";
+      }
+      if (error == null) {
+        error =
+            checker.findViolation(
+                request.productId, request.warehouseBusinessUnitCode, request.storeId);
+      }
+
+      if (error != null) {
+        results.add(FulfillmentAssignmentBatchResult.failed(i, error));
+        continue;
+      }
+
+      checker.accept(request.productId, request.warehouseBusinessUnitCode, request.storeId);
+      FulfillmentAssignment assignment =
+          new FulfillmentAssignment(
+              request.productId, request.warehouseBusinessUnitCode, request.storeId);
+      assignment.createdAt = now;
+      results.add(FulfillmentAssignmentBatchResult.succeeded(i, assignment));
+    }
+
+    return results;
+  }
+
+  /**
+   * Reserves an idempotency key for this request, or answers the request from an earlier one that
+   * used the same key.
+   *
+   * @return the response to send instead of processing the request, or {@code null} to proceed
+   */
+  private Response replayOrReserve(String idempotencyKey, FulfillmentAssignmentRequest request) {
+    if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+      throw new WebApplicationException(
+          IDEMPOTENCY_KEY_HEADER
+              + " must be between 1 and "
+              + MAX_IDEMPOTENCY_KEY_LENGTH
+              + " characters.",
+          400);
+    }
+
+    String fingerprint =
+        request.productId + "|" + request.warehouseBusinessUnitCode + "|" + request.storeId;
+    IdempotencyKeyStore.Entry previous = idempotencyKeys.begin(idempotencyKey, fingerprint);
+    if (previous == null) {
+      return null;
+    }
+    if (!previous.matches(fingerprint)) {
+      throw new WebApplicationException(
+          IDEMPOTENCY_KEY_HEADER + " '" + idempotencyKey + "' was used for a different request.",
+          422);
+    }
+    if (previous.getResponse() == null) {
+      throw new WebApplicationException(
+          "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still in progress.", 409);
+    }
+    LOGGER.debugf("Replaying fulfillment assignment for idempotency key '%s'", idempotencyKey);
+    return Response.status(201).entity(previous.getResponse()).build();
+  }
+
   private void validateRequest(FulfillmentAssignmentRequest request) {
+    String error = validationError(request);
+    if (error != null) {
+      throw new WebApplicationException(error, 400);
+    }
+  }
+
+  private static String validationError(FulfillmentAssignmentRequest request) {
     if (request.productId == null) {
-      throw new WebApplicationException("productId is required.", 400);
+      return "productId is required.";
     }
     if (request.warehouseBusinessUnitCode == null
         || request.warehouseBusinessUnitCode.isBlank()) {
-      throw new WebApplicationException("warehouseBusinessUnitCode is required.", 400);
+      return "warehouseBusinessUnitCode is required.";
     }
     if (request.storeId == null) {
-      throw new WebApplicationException("storeId is required.", 400);
+      return "storeId is required.";
     }
+    return null;
   }
 }
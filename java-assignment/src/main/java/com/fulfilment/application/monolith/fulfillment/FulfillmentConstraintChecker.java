@@ -0,0 +1,105 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evaluates the fulfillment assignment constraints for one or more candidate assignments.
+ *
+ * <p>Committed assignments are read from the {@link FulfillmentConstraintIndex}. Assignments passed
+ * to {@link #accept} are layered on top of that state, so later candidates of the same request see
+ * the effect of earlier ones. A checker belongs to a single request and is not thread-safe.
+ */
+class FulfillmentConstraintChecker {
+
+  static final int MAX_WAREHOUSES_PER_PRODUCT_PER_STORE = 2;
+  static final int MAX_WAREHOUSES_PER_STORE = 3;
+  static final int MAX_PRODUCTS_PER_WAREHOUSE = 5;
+
+  static final String DUPLICATE_MESSAGE = "This fulfillment assignment already exists.";
+
+  private final FulfillmentConstraintIndex index;
+
+  // working copies of the index entries this request has touched
+  private final Map<Long, Map<Long, Set<String>>> warehousesByStoreAndProduct = new HashMap<>();
+  private final Map<Long, Set<String>> warehousesByStore = new HashMap<>();
+  private final Map<String, Set<Long>> productsByWarehouse = new HashMap<>();
+
+  FulfillmentConstraintChecker(FulfillmentConstraintIndex index) {
+    this.index = index;
+  }
+
+  /**
+   * Checks a candidate assignment against the duplicate rule and the three constraints.
+   *
+   * @return the reason the assignment is rejected, or {@code null} if it may be created
+   */
+  String findViolation(Long productId, String warehouseBusinessUnitCode, Long storeId) {
+    Set<String> warehousesForProduct = warehousesForProductAtStore(productId, storeId);
+
+    // Check if assignment already exists
+    if (warehousesForProduct.contains(warehouseBusinessUnitCode)) {
+      return DUPLICATE_MESSAGE;
+    }
+
+    // Constraint 1: Each Product can be fulfilled by max 2 different Warehouses per Store
+    if (warehousesForProduct.size() >= MAX_WAREHOUSES_PER_PRODUCT_PER_STORE) {
+      return "Product "
+          + productId
+          + " is already fulfilled by "
+          + MAX_WAREHOUSES_PER_PRODUCT_PER_STORE
+          + " warehouses for store "
+          + storeId
+          + ". Maximum reached.";
+    }
+
+    // Constraint 2: Each Store can be fulfilled by max 3 different Warehouses
+    // Only check if this warehouse is not already assigned to this store
+    Set<String> warehousesForStore = warehousesForStore(storeId);
+    if (!warehousesForStore.contains(warehouseBusinessUnitCode)
+        && warehousesForStore.size() >= MAX_WAREHOUSES_PER_STORE) {
+      return "Store "
+          + storeId
+          + " is already fulfilled by "
+          + MAX_WAREHOUSES_PER_STORE
+          + " different warehouses. Maximum reached.";
+    }
+
+    // Constraint 3: Each Warehouse can store max 5 types of Products
+    // Only check if this product is not already stored in this warehouse
+    Set<Long> productsInWarehouse = productsInWarehouse(warehouseBusinessUnitCode);
+    if (!productsInWarehouse.contains(productId)
+        && productsInWarehouse.size() >= MAX_PRODUCTS_PER_WAREHOUSE) {
+      return "Warehouse '"
+          + warehouseBusinessUnitCode
+          + "' already stores "
+          + MAX_PRODUCTS_PER_WAREHOUSE
+          + " different products. Maximum reached.";
+    }
+
+    return null;
+  }
+
+  /** Records an assignment that passed {@link #findViolation} for the remaining candidates. */
+  void accept(Long productId, String warehouseBusinessUnitCode, Long storeId) {
+    warehousesForProductAtStore(productId, storeId).add(warehouseBusinessUnitCode);
+    warehousesForStore(storeId).add(warehouseBusinessUnitCode);
+    productsInWarehouse(warehouseBusinessUnitCode).add(productId);
+  }
+
+  private Set<String> warehousesForProductAtStore(Long productId, Long storeId) {
+    return warehousesByStoreAndProduct
+        .computeIfAbsent(storeId, k -> new HashMap<>())
+        .computeIfAbsent(productId, k -> index.warehousesForProductAtStore(productId, storeId));
+  }
+
+  private Set<String> warehousesForStore(Long storeId) {
+    return warehousesByStore.computeIfAbsent(storeId, index::warehousesForStore);
+  }
+
+  private Set<Long> productsInWarehouse(String warehouseBusinessUnitCode) {
+    return productsByWarehouse.computeIfAbsent(
+        warehouseBusinessUnitCode, index::productsInWarehouse);
+  }
+}
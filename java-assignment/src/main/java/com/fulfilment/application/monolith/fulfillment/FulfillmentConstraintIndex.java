@@ -0,0 +1,197 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.jboss.logging.Logger;
+
+/**
+ * In-memory view of the committed fulfillment assignments, shaped for the three constraint checks
+ * of {@link FulfillmentAssignmentResource}.
+ *
+ * <p>The index is loaded from the database on first use, reading only the three key columns of each
+ * assignment, and afterwards kept in sync by observing {@link FulfillmentAssignmentEvent}s once
+ * their transaction has committed. Every structure stores the full set of related ids rather than a
+ * counter, so applying the same event twice (or an event whose row was already picked up by the
+ * initial load) leaves the index unchanged.
+ *
+ * <p>All access goes through one {@link ReentrantLock}, which the first lookup keeps while it loads
+ * the index, so events committed meanwhile are applied after the load instead of being lost. Unlike
+ * a monitor, the lock does not pin a virtual thread to its carrier while the load waits on JDBC, so
+ * requests queued behind it release their carriers.
+ *
+ * <p>The index only sees the assignments committed through this JVM. With more than one instance,
+ * the unique index {@code uk_fulfillment_product_warehouse_store} is the only guard shared between
+ * them, and it only rejects exact duplicates, not assignments over the limits checked here.
+ */
+@ApplicationScoped
+public class FulfillmentConstraintIndex {
+
+  private static final Logger LOGGER =
+      Logger.getLogger(FulfillmentConstraintIndex.class.getName());
+
+  private final FulfillmentAssignmentRepository repository;
+
+  // store -> product -> warehouses
+  private final Map<Long, Map<Long, Set<String>>> warehousesByStoreAndProduct = new HashMap<>();
+
+  // store -> warehouse -> products
+  private final Map<Long, Map<String, Set<Long>>> productsByStoreAndWarehouse = new HashMap<>();
+
+  // warehouse -> product -> stores
+  private final Map<String, Map<Long, Set<Long>>> storesByWarehouseAndProduct = new HashMap<>();
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private boolean loaded;
+
+  public FulfillmentConstraintIndex(FulfillmentAssignmentRepository repository) {
+    this.repository = repository;
+  }
+
+  /**
+   * Keeps the index in sync with assignments that were created or deleted in a committed
+   * transaction. Events arriving before the index is loaded are ignored, the load will read them.
+   */
+  public void onAssignmentEvent(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) FulfillmentAssignmentEvent event) {
+    apply(event);
+  }
+
+  /** Applies a committed change. Safe to call more than once for the same change. */
+  public void apply(FulfillmentAssignmentEvent event) {
+    lock.lock();
+    try {
+      if (!loaded) {
+        return;
+      }
+      switch (event.getType()) {
+        case CREATED -> add(event.getAssignment());
+        case DELETED -> remove(event.getAssignment());
+        case WAREHOUSE_REMOVED -> removeWarehouse(event.getAssignment().warehouseBusinessUnitCode);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns a mutable copy of the warehouses fulfilling a product for a store. */
+  public Set<String> warehousesForProductAtStore(Long productId, Long storeId) {
+    return read(() -> new HashSet<>(nested(warehousesByStoreAndProduct, storeId, productId)));
+  }
+
+  /** Returns a mutable copy of the distinct warehouses fulfilling a store. */
+  public Set<String> warehousesForStore(Long storeId) {
+    return read(
+        () -> new HashSet<>(productsByStoreAndWarehouse.getOrDefault(storeId, Map.of()).keySet()));
+  }
+
+  /** Returns a mutable copy of the distinct products stored in a warehouse. */
+  public Set<Long> productsInWarehouse(String warehouseBusinessUnitCode) {
+    return read(
+        () ->
+            new HashSet<>(
+                storesByWarehouseAndProduct
+                    .getOrDefault(warehouseBusinessUnitCode, Map.of())
+                    .keySet()));
+  }
+
+  /** Drops the in-memory state; the next lookup reloads it from the database. */
+  public void invalidate() {
+    lock.lock();
+    try {
+      warehousesByStoreAndProduct.clear();
+      productsByStoreAndWarehouse.clear();
+      storesByWarehouseAndProduct.clear();
+      loaded = false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private <T> T read(Supplier<T> lookup) {
+    lock.lock();
+    try {
+      ensureLoaded();
+      return lookup.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void ensureLoaded() {
+    if (loaded) {
+      return;
+    }
+    try (Stream<FulfillmentAssignment> assignments = repository.streamConstraintKeys()) {
+      assignments.forEach(this::add);
+    }
+    loaded = true;
+    LOGGER.debugf(
+        "Loaded fulfillment constraint index for %d stores and %d warehouses",
+        productsByStoreAndWarehouse.size(), storesByWarehouseAndProduct.size());
+  }
+
+  private void add(FulfillmentAssignment a) {
+    link(warehousesByStoreAndProduct, a.storeId, a.productId, a.warehouseBusinessUnitCode);
+    link(productsByStoreAndWarehouse, a.storeId, a.warehouseBusinessUnitCode, a.productId);
+    link(storesByWarehouseAndProduct, a.warehouseBusinessUnitCode, a.productId, a.storeId);
+  }
+
+  private void remove(FulfillmentAssignment a) {
+    unlink(warehousesByStoreAndProduct, a.storeId, a.productId, a.warehouseBusinessUnitCode);
+    unlink(productsByStoreAndWarehouse, a.storeId, a.warehouseBusinessUnitCode, a.productId);
+    unlink(storesByWarehouseAndProduct, a.warehouseBusinessUnitCode, a.productId, a.storeId);
+  }
+
+  private void removeWarehouse(String warehouseBusinessUnitCode) {
+    Map<Long, Set<Long>> storesByProduct =
+        storesByWarehouseAndProduct.getOrDefault(warehouseBusinessUnitCode, Map.of());
+    for (Map.Entry<Long, Set<Long>> entry : Map.copyOf(storesByProduct).entrySet()) {
+      for (Long storeId : Set.copyOf(entry.getValue())) {
+        FulfillmentAssignment assignment = new FulfillmentAssignment();
+        assignment.productId = entry.getKey();
+        assignment.warehouseBusinessUnitCode = warehouseBusinessUnitCode;
+        assignment.storeId = storeId;
+        remove(assignment);
+      }
+    }
+  }
+
+  private static <K1, K2, V> Set<V> nested(Map<K1, Map<K2, Set<V>>> map, K1 outer, K2 inner) {
+    return map.getOrDefault(outer, Map.of()).getOrDefault(inner, Set.of());
+  }
+
+  private static <K1, K2, V> void link(
+      Map<K1, Map<K2, Set<V>>> map, K1 outer, K2 inner, V value) {
+    map.computeIfAbsent(outer, k -> new HashMap<>())
+        .computeIfAbsent(inner, k -> new HashSet<>())
+        .add(value);
+  }
+
+  private static <K1, K2, V> void unlink(
+      Map<K1, Map<K2, Set<V>>> map, K1 outer, K2 inner, V value) {
+    Map<K2, Set<V>> byInner = map.get(outer);
+    if (byInner == null) {
+      return;
+    }
+    Set<V> values = byInner.get(inner);
+    if (values == null) {
+      return;
+    }
+    values.remove(value);
+    if (values.isEmpty()) {
+      byInner.remove(inner);
+    }
+    if (byInner.isEmpty()) {
+      map.remove(outer);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.ws.rs.WebApplicationException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Striped locks that serialize fulfillment assignment creation per store and per warehouse.
+ *
+ * <p>The per-product-per-store and per-store limits are guarded by the store stripe, the
+ * per-warehouse limit by the warehouse stripe, so requests touching unrelated stores and warehouses
+ * still run in parallel. The stripes are held until the surrounding transaction completes. On
+ * commit the recorded assignments are applied to the {@link FulfillmentConstraintIndex} before the
+ * stripes are released, so the next holder always checks against up-to-date counts.
+ *
+ * <p>The locks live in this JVM only; several instances writing to the same database still rely on
+ * the unique constraint for duplicates.
+ */
+@ApplicationScoped
+public class FulfillmentConstraintLocks {
+
+  private static final int STRIPES = 64;
+  private static final long LOCK_TIMEOUT_SECONDS = 10;
+
+  private final Semaphore[] stripes = new Semaphore[STRIPES];
+
+  private final TransactionSynchronizationRegistry registry;
+  private final FulfillmentConstraintIndex index;
+
+  public FulfillmentConstraintLocks(
+      TransactionSynchronizationRegistry registry, FulfillmentConstraintIndex index) {
+    this.registry = registry;
+    this.index = index;
+    for (int i = 0; i < STRIPES; i++) {
+      // semaphores rather than ReentrantLocks: the transaction may complete on another thread
+      stripes[i] = new Semaphore(1);
+    }
+  }
+
+  /**
+   * Locks the stripes of the given stores and warehouses until the current transaction completes.
+   * Must be called at most once per transaction, before the constraints are checked.
+   */
+  public void lock(Collection<Long> storeIds, Collection<String> warehouseCodes) {
+    if (registry.getResource(FulfillmentConstraintLocks.class) != null) {
+      throw new IllegalStateException("Fulfillment constraint locks are already held.");
+    }
+
+    // acquiring in ascending stripe order rules out deadlocks between transactions
+    TreeSet<Integer> stripeIndexes = new TreeSet<>();
+    storeIds.forEach(id -> stripeIndexes.add(stripeOf("store:" + id)));
+    warehouseCodes.forEach(code -> stripeIndexes.add(stripeOf("warehouse:" + code)));
+
+    Held held = new Held();
+    try {
+      for (int stripe : stripeIndexes) {
+        if (!stripes[stripe].tryAcquire(LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          throw new WebApplicationException(
+              "Timed out waiting for concurrent fulfillment changes. Please retry.", 503);
+        }
+        held.acquired.add(stripe);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      held.release();
+      throw new WebApplicationException("Interrupted while waiting for fulfillment locks.", 503);
+    } catch (RuntimeException e) {
+      held.release();
+      throw e;
+    }
+
+    registry.putResource(FulfillmentConstraintLocks.class, held);
+    registry.registerInterposedSynchronization(held);
+  }
+
+  /**
+   * Records an assignment created under the current locks, to be applied to the constraint index
+   * once the transaction commits.
+   */
+  public void recordCreated(FulfillmentAssignment assignment) {
+    Held held = (Held) registry.getResource(FulfillmentConstraintLocks.class);
+    if (held == null) {
+      throw new IllegalStateException("Fulfillment constraint locks are not held.");
+    }
+    held.created.add(assignment);
+  }
+
+  private static int stripeOf(String key) {
+    return Math.floorMod(key.hashCode(), STRIPES);
+  }
+
+  private class Held implements Synchronization {
+
+    private final List<Integer> acquired = new ArrayList<>();
+    private final List<FulfillmentAssignment> created = new ArrayList<>();
+
+    @Override
+    public void beforeCompletion() {}
+
+    @Override
+    public void afterCompletion(int status) {
+      try {
+        if (status == Status.STATUS_COMMITTED) {
+          created.forEach(
+              a ->
+                  index.apply(
+                      new FulfillmentAssignmentEvent(a, FulfillmentAssignmentEvent.Type.CREATED)));
+        }
+      } finally {
+        release();
+      }
+    }
+
+    void release() {
+      acquired.forEach(stripe -> stripes[stripe].release());
+      acquired.clear();
+    }
+  }
+}
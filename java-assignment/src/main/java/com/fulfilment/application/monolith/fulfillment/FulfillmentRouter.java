@@ -0,0 +1,45 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Answers which warehouses fulfil a product for a store without touching the database on the hot
+ * path.
+ *
+ * <p>The store → product → warehouses adjacency comes from the {@link FulfillmentConstraintIndex},
+ * which already follows every committed assignment change. Warehouse stock and capacity are read
+ * through the injected {@link WarehouseStore}, whose lookups by business unit code are served and
+ * invalidated by the warehouse cache.
+ */
+@ApplicationScoped
+public class FulfillmentRouter {
+
+  private final FulfillmentConstraintIndex index;
+  private final WarehouseStore warehouseStore;
+
+  public FulfillmentRouter(FulfillmentConstraintIndex index, WarehouseStore warehouseStore) {
+    this.index = index;
+    this.warehouseStore = warehouseStore;
+  }
+
+  /**
+   * Returns the active warehouses assigned to fulfil the product for the store, ordered by business
+   * unit code.
+   */
+  public List<FulfillmentRoutingCandidate> route(Long productId, Long storeId) {
+    List<FulfillmentRoutingCandidate> candidates = new ArrayList<>();
+    for (String code : index.warehousesForProductAtStore(productId, storeId)) {
+      Warehouse warehouse = warehouseStore.findByBusinessUnitCode(code);
+      if (warehouse != null) {
+        candidates.add(FulfillmentRoutingCandidate.of(warehouse));
+      }
+    }
+    candidates.sort(Comparator.comparing(c -> c.warehouseBusinessUnitCode));
+    return candidates;
+  }
+}
@@ -0,0 +1,23 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+
+/** A warehouse that may fulfil a product for a store, with its stock levels at lookup time. */
+public class FulfillmentRoutingCandidate {
+
+  public String warehouseBusinessUnitCode;
+  public String location;
+  public Integer capacity;
+  public Integer stock;
+
+  public FulfillmentRoutingCandidate() {}
+
+  static FulfillmentRoutingCandidate of(Warehouse warehouse) {
+    FulfillmentRoutingCandidate candidate = new FulfillmentRoutingCandidate();
+    candidate.warehouseBusinessUnitCode = warehouse.businessUnitCode;
+    candidate.location = warehouse.location;
+    candidate.capacity = warehouse.capacity;
+    candidate.stock = warehouse.stock;
+    return candidate;
+  }
+}
@@ -0,0 +1,141 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers recently used {@code Idempotency-Key}s together with the response they produced, so a
+ * retried request can be answered without running it again.
+ *
+ * <p>A key is reserved by {@link #begin} at the start of a transaction and only becomes replayable
+ * once that transaction commits; if it rolls back the reservation is dropped and the client may
+ * retry with the same key. At most {@link #MAX_ENTRIES} keys are kept, each for {@link #TTL}; the
+ * oldest keys are evicted first. Keys live in this JVM only.
+ */
+@ApplicationScoped
+public class IdempotencyKeyStore {
+
+  static final int MAX_ENTRIES = 10_000;
+  static final Duration TTL = Duration.ofHours(24);
+
+  /** A key that was seen before, with the response to replay once its request has committed. */
+  public static final class Entry {
+
+    private final String fingerprint;
+    private final Instant createdAt;
+    private Object response;
+
+    private Entry(String fingerprint, Instant createdAt) {
+      this.fingerprint = fingerprint;
+      this.createdAt = createdAt;
+    }
+
+    public boolean matches(String fingerprint) {
+      return this.fingerprint.equals(fingerprint);
+    }
+
+    /** Returns the stored response, or {@code null} while the first request is still running. */
+    public Object getResponse() {
+      return response;
+    }
+  }
+
+  private final TransactionSynchronizationRegistry registry;
+  private final int maxEntries;
+  private final Duration ttl;
+  private final Clock clock;
+
+  // insertion order equals expiry order because every key lives for the same ttl
+  private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+  @Inject
+  public IdempotencyKeyStore(TransactionSynchronizationRegistry registry) {
+    this(registry, MAX_ENTRIES, TTL, Clock.systemUTC());
+  }
+
+  IdempotencyKeyStore(
+      TransactionSynchronizationRegistry registry, int maxEntries, Duration ttl, Clock clock) {
+    this.registry = registry;
+    this.maxEntries = maxEntries;
+    this.ttl = ttl;
+    this.clock = clock;
+  }
+
+  /**
+   * Reserves a key for the current transaction.
+   *
+   * @return {@code null} if the key is new and the caller should process the request, otherwise
+   *     the entry left by the earlier request with this key
+   */
+  public Entry begin(String key, String fingerprint) {
+    Entry entry;
+    synchronized (this) {
+      evictExpired();
+      Entry existing = entries.get(key);
+      if (existing != null) {
+        return existing;
+      }
+      if (entries.size() >= maxEntries) {
+        Iterator<Entry> oldest = entries.values().iterator();
+        oldest.next();
+        oldest.remove();
+      }
+      entry = new Entry(fingerprint, clock.instant());
+      entries.put(key, entry);
+    }
+
+    Object[] holder = new Object[1];
+    registry.putResource(new ResourceKey(key), holder);
+    registry.registerInterposedSynchronization(
+        new Synchronization() {
+          @Override
+          public void beforeCompletion() {}
+
+          @Override
+          public void afterCompletion(int status) {
+            complete(key, entry, status == Status.STATUS_COMMITTED ? holder[0] : null);
+          }
+        });
+    return null;
+  }
+
+  /** Sets the response to replay for a key reserved in the current transaction. */
+  public void respond(String key, Object response) {
+    Object[] holder = (Object[]) registry.getResource(new ResourceKey(key));
+    if (holder == null) {
+      throw new IllegalStateException("Idempotency key '" + key + "' is not reserved.");
+    }
+    holder[0] = response;
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  private synchronized void complete(String key, Entry entry, Object response) {
+    if (response != null) {
+      entry.response = response;
+    } else {
+      entries.remove(key, entry);
+    }
+  }
+
+  private void evictExpired() {
+    Instant cutoff = clock.instant().minus(ttl);
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (iterator.hasNext() && iterator.next().createdAt.isBefore(cutoff)) {
+      iterator.remove();
+    }
+  }
+
+  private record ResourceKey(String key) {}
+}
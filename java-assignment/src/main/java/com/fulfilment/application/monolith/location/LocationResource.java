@@ -0,0 +1,34 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationUsageStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+
+@Path("location")
+@ApplicationScoped
+@Produces(MediaType.APPLICATION_JSON)
+public class LocationResource {
+
+  @Inject LocationResolver locationResolver;
+
+  @Inject LocationUsageStore locationUsageStore;
+
+  /** Returns the active warehouse count and used capacity of a location next to its limits. */
+  @GET
+  @Path("{id}/usage")
+  public LocationUsageResponse getUsage(@PathParam("id") String id) {
+    Location location = locationResolver.resolveByIdentifier(id);
+    if (location == null) {
+      throw new WebApplicationException("Location '" + id + "' not found.", 404);
+    }
+    return LocationUsageResponse.of(location, locationUsageStore.getUsage(id));
+  }
+}
@@ -0,0 +1,26 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+
+/** Response DTO combining the limits of a location with its current usage. */
+public class LocationUsageResponse {
+
+  public String location;
+  public int activeWarehouses;
+  public int maxNumberOfWarehouses;
+  public int usedCapacity;
+  public int maxCapacity;
+
+  public LocationUsageResponse() {}
+
+  static LocationUsageResponse of(Location location, LocationUsage usage) {
+    LocationUsageResponse response = new LocationUsageResponse();
+    response.location = location.identification;
+    response.activeWarehouses = usage.activeWarehouses;
+    response.maxNumberOfWarehouses = location.maxNumberOfWarehouses;
+    response.usedCapacity = usage.usedCapacity;
+    response.maxCapacity = location.maxCapacity;
+    return response;
+  }
+}
@@ -0,0 +1,101 @@
+package com.fulfilment.application.monolith.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.ToLongFunction;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Exports hit, miss and put counts for each query cache region named by a cacheable named query,
+ * plus the number of entries held by every second-level cache region.
+ *
+ * <p>The Hibernate metrics of {@code quarkus.hibernate-orm.metrics.enabled} already break entity
+ * regions down, but count the query cache only as a whole. The entry count shows when a region sits
+ * at its configured {@code memory.object-count} and has started evicting; the region factory keeps
+ * no eviction counter of its own.
+ */
+@Singleton
+public class HibernateCacheRegionMetrics implements MeterBinder {
+
+  @Inject SessionFactory sessionFactory;
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Statistics statistics = sessionFactory.getStatistics();
+
+    Set<String> queryRegions = queryRegions();
+    for (String region : queryRegions) {
+      requests(registry, statistics, region, "hit", CacheRegionStatistics::getHitCount);
+      requests(registry, statistics, region, "miss", CacheRegionStatistics::getMissCount);
+      FunctionCounter.builder(
+              "hibernate.cache.query.region.puts",
+              statistics,
+              s -> count(s, region, CacheRegionStatistics::getPutCount))
+          .description("Query results put into the region")
+          .tag("region", region)
+          .register(registry);
+    }
+
+    Set<String> regions = new TreeSet<>(queryRegions);
+    regions.addAll(Set.of(statistics.getSecondLevelCacheRegionNames()));
+    for (String region : regions) {
+      Gauge.builder(
+              "hibernate.cache.region.entries",
+              statistics,
+              s -> count(s, region, CacheRegionStatistics::getElementCountInMemory))
+          .description("Entries held in the second-level cache region")
+          .tag("region", region)
+          .register(registry);
+    }
+  }
+
+  // the regions named by the cache region hint of a cacheable named query
+  private Set<String> queryRegions() {
+    Set<String> regions = new TreeSet<>();
+    sessionFactory
+        .unwrap(SessionFactoryImplementor.class)
+        .getQueryEngine()
+        .getNamedObjectRepository()
+        .visitSqmQueryMementos(
+            memento -> {
+              if (Boolean.TRUE.equals(memento.getCacheable()) && memento.getCacheRegion() != null) {
+                regions.add(memento.getCacheRegion());
+              }
+            });
+    return regions;
+  }
+
+  private static void requests(
+      MeterRegistry registry,
+      Statistics statistics,
+      String region,
+      String result,
+      ToLongFunction<CacheRegionStatistics> counter) {
+    FunctionCounter.builder(
+            "hibernate.cache.query.region.requests", statistics, s -> count(s, region, counter))
+        .description("Lookups of query results in the region")
+        .tag("region", region)
+        .tag("result", result)
+        .register(registry);
+  }
+
+  // a query region only exists once a query has used it; until then its counts are zero
+  private static double count(
+      Statistics statistics, String region, ToLongFunction<CacheRegionStatistics> counter) {
+    CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+    if (regionStatistics == null) {
+      return 0;
+    }
+    long value = counter.applyAsLong(regionStatistics);
+    return value < 0 ? 0 : value;
+  }
+}
@@ -0,0 +1,60 @@
+package com.fulfilment.application.monolith.pagination;
+
+import jakarta.ws.rs.WebApplicationException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor. It wraps the id of the last row of a page, so the next page
+ * resumes with {@code id > lastId} instead of skipping an offset.
+ */
+public final class PageCursor {
+
+  /** Response header carrying the cursor of the next page, absent on the last page. */
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  public static final int DEFAULT_LIMIT = 100;
+  public static final int MAX_LIMIT = 1000;
+
+  private static final String PREFIX = "id:";
+
+  private PageCursor() {}
+
+  public static String encode(long lastId) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a cursor received from a client.
+   *
+   * @return the id to continue after, or {@code null} to start from the beginning
+   */
+  public static Long decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      if (!value.startsWith(PREFIX)) {
+        throw new IllegalArgumentException(value);
+      }
+      return Long.parseLong(value.substring(PREFIX.length()));
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException("Invalid cursor '" + cursor + "'.", 400);
+    }
+  }
+
+  /** Validates a requested page size, falling back to {@link #DEFAULT_LIMIT}. */
+  public static int limit(Integer requested) {
+    if (requested == null) {
+      return DEFAULT_LIMIT;
+    }
+    if (requested < 1 || requested > MAX_LIMIT) {
+      throw new WebApplicationException(
+          "limit must be between 1 and " + MAX_LIMIT + ".", 400);
+    }
+    return requested;
+  }
+}
@@ -5,12 +5,24 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
+import org.hibernate.jpa.HibernateHints;
 
 @Entity
 @Cacheable
+@NamedQuery(
+    name = Product.LIST_BY_NAME,
+    query = "from Product order by name",
+    hints = {
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "product-list")
+    })
 public class Product {
 
+  public static final String LIST_BY_NAME = "Product.listByName";
+
   @Id @GeneratedValue public Long id;
 
   @Column(length = 40, unique = true)
@@ -2,6 +2,27 @@ package com.fulfilment.application.monolith.products;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 @ApplicationScoped
-public class ProductRepository implements PanacheRepository<Product> {}
+public class ProductRepository implements PanacheRepository<Product> {
+
+  /**
+   * Returns which of the given product IDs exist, using a single query.
+   *
+   * @param ids the product IDs to look up
+   * @return the subset of {@code ids} that belong to an existing product
+   */
+  public Set<Long> findExistingIds(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return new HashSet<>();
+    }
+    return new HashSet<>(
+        getEntityManager()
+            .createQuery("select p.id from Product p where p.id in ?1", Long.class)
+            .setParameter(1, ids)
+            .getResultList());
+  }
+}
@@ -2,7 +2,7 @@ package com.fulfilment.application.monolith.products;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import io.quarkus.panache.common.Sort;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -21,6 +21,7 @@ import java.util.List;
 import org.jboss.logging.Logger;
 
 @Path("product")
+@RunOnVirtualThread
 @ApplicationScoped
 @Produces("application/json")
 @Consumes("application/json")
@@ -32,7 +33,7 @@ public class ProductResource {
 
   @GET
   public List<Product> get() {
-    return productRepository.listAll(Sort.by("name"));
+    return productRepository.list("#" + Product.LIST_BY_NAME);
   }
 
   @GET
@@ -4,11 +4,26 @@ import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import org.hibernate.jpa.HibernateHints;
 
 @Entity
 @Cacheable
+@NamedQuery(
+    name = Store.LIST_BY_NAME,
+    query = "from Store order by name",
+    hints = {
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "store-list")
+    })
 public class Store extends PanacheEntity {
 
+  public static final String LIST_BY_NAME = "Store.listByName";
+
   @Column(length = 40, unique = true)
   public String name;
 
@@ -19,4 +34,21 @@ public class Store extends PanacheEntity {
   public Store(String name) {
     this.name = name;
   }
+
+  /**
+   * Returns which of the given store IDs exist, using a single query.
+   *
+   * @param ids the store IDs to look up
+   * @return the subset of {@code ids} that belong to an existing store
+   */
+  public static Set<Long> findExistingIds(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return new HashSet<>();
+    }
+    return new HashSet<>(
+        getEntityManager()
+            .createQuery("select s.id from Store s where s.id in ?1", Long.class)
+            .setParameter(1, ids)
+            .getResultList());
+  }
 }
@@ -2,7 +2,7 @@ package com.fulfilment.application.monolith.stores;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import io.quarkus.panache.common.Sort;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
@@ -23,6 +23,7 @@ import java.util.List;
 import org.jboss.logging.Logger;
 
 @Path("store")
+@RunOnVirtualThread
 @ApplicationScoped
 @Produces("application/json")
 @Consumes("application/json")
@@ -34,7 +35,7 @@ public class StoreResource {
 
   @GET
   public List<Store> get() {
-    return Store.listAll(Sort.by("name"));
+    return Store.list("#" + Store.LIST_BY_NAME);
   }
 
   @GET
@@ -0,0 +1,116 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseFilter;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSummary;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.annotation.Priority;
+import jakarta.decorator.Decorator;
+import jakarta.decorator.Delegate;
+import jakarta.inject.Inject;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Serves {@link WarehouseStore#findByBusinessUnitCode} from the {@link WarehouseCache} for every
+ * bean injected as a {@link WarehouseStore}. Writes go straight to the store and invalidate the
+ * codes they touch.
+ *
+ * <p>Once a transaction has written warehouses, its further lookups bypass the cache: they may see
+ * uncommitted rows, which must not become visible to other transactions through the cache.
+ */
+@Decorator
+@Priority(10)
+public class CachingWarehouseStore implements WarehouseStore {
+
+  private static final Object WRITTEN = CachingWarehouseStore.class;
+
+  @Inject @Delegate WarehouseStore delegate;
+
+  @Inject WarehouseCache cache;
+
+  @Inject TransactionSynchronizationRegistry registry;
+
+  @Override
+  public Warehouse findByBusinessUnitCode(String buCode) {
+    if (writtenInTransaction()) {
+      return delegate.findByBusinessUnitCode(buCode);
+    }
+    return cache.get(buCode, delegate::findByBusinessUnitCode);
+  }
+
+  @Override
+  public void create(Warehouse warehouse) {
+    written(warehouse.businessUnitCode);
+    delegate.create(warehouse);
+  }
+
+  @Override
+  public List<Warehouse> createAll(
+      List<Warehouse> warehouses, Function<Map<String, LocationUsage>, List<Warehouse>> admit) {
+    // runs in a transaction of its own, invalidated again when that one completes
+    warehouses.forEach(w -> cache.invalidate(w.businessUnitCode));
+    return delegate.createAll(warehouses, admit);
+  }
+
+  @Override
+  public void update(Warehouse warehouse) {
+    written(warehouse.businessUnitCode);
+    delegate.update(warehouse);
+  }
+
+  @Override
+  public Warehouse modifyActive(String buCode, Consumer<Warehouse> change) {
+    written(buCode);
+    return delegate.modifyActive(buCode, change);
+  }
+
+  @Override
+  public Integer adjustStock(String buCode, int delta) {
+    written(buCode);
+    return delegate.adjustStock(buCode, delta);
+  }
+
+  @Override
+  public void remove(Warehouse warehouse) {
+    written(warehouse.businessUnitCode);
+    delegate.remove(warehouse);
+  }
+
+  @Override
+  public List<Warehouse> getAll() {
+    return delegate.getAll();
+  }
+
+  @Override
+  public List<Warehouse> findActiveByBusinessUnitCodes(Collection<String> buCodes) {
+    return delegate.findActiveByBusinessUnitCodes(buCodes);
+  }
+
+  @Override
+  public List<WarehouseSummary> findActivePage(
+      WarehouseFilter filter, Long afterId, int maxResults) {
+    return delegate.findActivePage(filter, afterId, maxResults);
+  }
+
+  @Override
+  public List<Warehouse> findHistory(String buCode) {
+    return delegate.findHistory(buCode);
+  }
+
+  private void written(String buCode) {
+    cache.invalidate(buCode);
+    if (registry.getTransactionKey() != null) {
+      registry.putResource(WRITTEN, Boolean.TRUE);
+    }
+  }
+
+  private boolean writtenInTransaction() {
+    return registry.getTransactionKey() != null && registry.getResource(WRITTEN) != null;
+  }
+}
@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "location_usage")
+public class DbLocationUsage {
+
+  @Id public String location;
+
+  public int activeWarehouses;
+
+  public int usedCapacity;
+
+  public DbLocationUsage() {}
+}
@@ -0,0 +1,22 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_movement")
+public class DbStockMovement {
+
+  @Id @GeneratedValue public Long id;
+
+  public String businessUnitCode;
+
+  public int delta;
+
+  public LocalDateTime createdAt;
+
+  public DbStockMovement() {}
+}
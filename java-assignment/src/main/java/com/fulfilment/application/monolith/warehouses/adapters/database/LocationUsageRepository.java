@@ -0,0 +1,95 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationUsageStore;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.List;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Keeps one row per location with its active warehouse count and used capacity. Rows are changed
+ * with relative UPDATE statements, so concurrent transactions never overwrite each other's
+ * adjustments. The same rows serve as per-location locks for the create and replace checks.
+ */
+@ApplicationScoped
+public class LocationUsageRepository
+    implements LocationUsageStore, PanacheRepositoryBase<DbLocationUsage, String> {
+
+  @Override
+  public LocationUsage getUsage(String location) {
+    // a projection rather than an entity, which could be stale after the bulk updates below
+    return getEntityManager()
+        .createQuery(
+            "select new com.fulfilment.application.monolith.warehouses.domain.models"
+                + ".LocationUsage(u.location, u.activeWarehouses, u.usedCapacity)"
+                + " from DbLocationUsage u where u.location = ?1",
+            LocationUsage.class)
+        .setParameter(1, location)
+        .getResultStream()
+        .findFirst()
+        .orElseGet(() -> new LocationUsage(location, 0, 0));
+  }
+
+  @Override
+  public LocationUsage lockUsage(String location) {
+    LocationUsage usage = selectForUpdate(location);
+    if (usage == null) {
+      // first warehouse at this location: create its row so there is something to lock. A
+      // concurrent insert of the same row makes this one wait and then do nothing, instead of
+      // failing the transaction with a unique violation.
+      getEntityManager()
+          .createNativeQuery(
+              "INSERT INTO location_usage (location, activeWarehouses, usedCapacity)"
+                  + " VALUES (?1, 0, 0) ON CONFLICT DO NOTHING")
+          .unwrap(NativeQuery.class)
+          .setParameter(1, location)
+          .addSynchronizedEntityClass(DbLocationUsage.class)
+          .executeUpdate();
+      usage = selectForUpdate(location);
+      if (usage == null) {
+        throw new IllegalStateException("No usage row for location '" + location + "'.");
+      }
+    }
+    return usage;
+  }
+
+  /** Adds the given deltas to the usage of a location, creating its row on first use. */
+  void adjust(String location, int warehouses, int capacity) {
+    int updated =
+        update(
+            "activeWarehouses = activeWarehouses + ?1, usedCapacity = usedCapacity + ?2"
+                + " where location = ?3",
+            warehouses,
+            capacity,
+            location);
+    if (updated == 0) {
+      persist(newUsage(location, warehouses, capacity));
+    }
+  }
+
+  private LocationUsage selectForUpdate(String location) {
+    // native, since Hibernate does not lock rows read by a constructor projection
+    List<?> rows =
+        getEntityManager()
+            .createNativeQuery(
+                "SELECT activeWarehouses, usedCapacity FROM location_usage"
+                    + " WHERE location = ?1 FOR UPDATE")
+            .setParameter(1, location)
+            .getResultList();
+    if (rows.isEmpty()) {
+      return null;
+    }
+    Object[] row = (Object[]) rows.get(0);
+    return new LocationUsage(
+        location, ((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+  }
+
+  private static DbLocationUsage newUsage(String location, int warehouses, int capacity) {
+    DbLocationUsage usage = new DbLocationUsage();
+    usage.location = location;
+    usage.activeWarehouses = warehouses;
+    usage.usedCapacity = capacity;
+    return usage;
+  }
+}
@@ -0,0 +1,119 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseFilter;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSummary;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveWarehouseStore;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ReactiveWarehouseStore} over the reactive PostgreSQL client. Runs the same queries as
+ * {@link WarehouseRepository} as plain SQL, without a persistence context or a worker thread.
+ * Only built with {@code warehouse.api.mode=reactive}.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "warehouse.api.mode", stringValue = "reactive")
+public class ReactiveWarehouseRepository implements ReactiveWarehouseStore {
+
+  private static final String COLUMNS =
+      "SELECT businessUnitCode, location, capacity, stock, createdAt, archivedAt FROM warehouse";
+
+  @Inject PgPool client;
+
+  @Override
+  public Uni<Warehouse> findByBusinessUnitCode(String buCode) {
+    return client
+        .preparedQuery(COLUMNS + " WHERE businessUnitCode = $1 AND archivedAt IS NULL LIMIT 1")
+        .execute(Tuple.of(buCode))
+        .map(rows -> rows.size() == 0 ? null : toWarehouse(rows.iterator().next()));
+  }
+
+  @Override
+  public Uni<List<WarehouseSummary>> findActivePage(
+      WarehouseFilter filter, Long afterId, int maxResults) {
+    StringBuilder sql =
+        new StringBuilder(
+            "SELECT id, businessUnitCode, location, capacity, stock FROM warehouse WHERE ");
+    List<Object> parameters = new ArrayList<>();
+    if (filter.asOf == null) {
+      sql.append("archivedAt IS NULL");
+    } else {
+      parameters.add(filter.asOf);
+      int asOf = parameters.size();
+      sql.append("createdAt <= $")
+          .append(asOf)
+          .append(" AND (archivedAt IS NULL OR archivedAt > $")
+          .append(asOf)
+          .append(')');
+    }
+    condition(sql, parameters, "id > $", afterId);
+    condition(sql, parameters, "location = $", filter.location);
+    condition(sql, parameters, "capacity - COALESCE(stock, 0) >= $", filter.minFreeCapacity);
+    condition(sql, parameters, "stock >= $", filter.minStock);
+    condition(sql, parameters, "stock <= $", filter.maxStock);
+    parameters.add(maxResults);
+    sql.append(" ORDER BY id LIMIT $").append(parameters.size());
+
+    return client
+        .preparedQuery(sql.toString())
+        .execute(Tuple.from(parameters))
+        .map(ReactiveWarehouseRepository::toSummaries);
+  }
+
+  @Override
+  public Uni<List<Warehouse>> findHistory(String buCode) {
+    return client
+        .preparedQuery(COLUMNS + " WHERE businessUnitCode = $1 ORDER BY createdAt, id")
+        .execute(Tuple.of(buCode))
+        .map(
+            rows -> {
+              List<Warehouse> versions = new ArrayList<>(rows.size());
+              rows.forEach(row -> versions.add(toWarehouse(row)));
+              return versions;
+            });
+  }
+
+  // appends "AND <condition><n>" with n the position of value among the parameters
+  private static void condition(
+      StringBuilder sql, List<Object> parameters, String condition, Object value) {
+    if (value != null) {
+      parameters.add(value);
+      sql.append(" AND ").append(condition).append(parameters.size());
+    }
+  }
+
+  private static List<WarehouseSummary> toSummaries(RowSet<Row> rows) {
+    List<WarehouseSummary> summaries = new ArrayList<>(rows.size());
+    for (Row row : rows) {
+      summaries.add(
+          new WarehouseSummary(
+              row.getLong(0),
+              row.getString(1),
+              row.getString(2),
+              row.getInteger(3),
+              row.getInteger(4)));
+    }
+    return summaries;
+  }
+
+  // columns by position: PostgreSQL reports the unquoted column names in lower case
+  private static Warehouse toWarehouse(Row row) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = row.getString(0);
+    warehouse.location = row.getString(1);
+    warehouse.capacity = row.getInteger(2);
+    warehouse.stock = row.getInteger(3);
+    warehouse.createdAt = row.getLocalDateTime(4);
+    warehouse.archivedAt = row.getLocalDateTime(5);
+    return warehouse;
+  }
+}
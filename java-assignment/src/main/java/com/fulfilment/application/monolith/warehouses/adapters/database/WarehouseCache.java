@@ -0,0 +1,145 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of active warehouses by business unit code, used by {@link
+ * CachingWarehouseStore}.
+ *
+ * <p>At most {@link #MAX_ENTRIES} codes are kept, the least recently used evicted first. A found
+ * warehouse is kept for {@link #TTL}, a code without an active warehouse for the much shorter
+ * {@link #NEGATIVE_TTL}. Every warehouse change invalidates its code twice: when it is written, so
+ * the writing transaction reads its own change, and again after that transaction completes, so an
+ * entry loaded by another transaction in between does not outlive the change. Loads that overlap
+ * an invalidation are not stored. The cache lives in this JVM only; the TTLs bound how long a
+ * change made by another instance goes unnoticed.
+ *
+ * <p>Hits and misses are counted as {@code warehouse.cache.requests} with a {@code result} tag.
+ */
+@ApplicationScoped
+public class WarehouseCache {
+
+  static final int MAX_ENTRIES = 10_000;
+  static final Duration TTL = Duration.ofMinutes(5);
+  static final Duration NEGATIVE_TTL = Duration.ofSeconds(5);
+
+  private record Entry(Warehouse warehouse, Instant expiresAt) {}
+
+  private final int maxEntries;
+  private final Duration ttl;
+  private final Duration negativeTtl;
+  private final Clock clock;
+  private final Counter hits;
+  private final Counter misses;
+
+  // access order, so iteration starts at the least recently used code
+  private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  // bumped by every invalidation; a load only stores its result if this did not change meanwhile
+  private long invalidations;
+
+  @Inject
+  public WarehouseCache(MeterRegistry registry) {
+    this(registry, MAX_ENTRIES, TTL, NEGATIVE_TTL, Clock.systemUTC());
+  }
+
+  WarehouseCache(
+      MeterRegistry registry, int maxEntries, Duration ttl, Duration negativeTtl, Clock clock) {
+    this.maxEntries = maxEntries;
+    this.ttl = ttl;
+    this.negativeTtl = negativeTtl;
+    this.clock = clock;
+    this.hits = counter(registry, "hit");
+    this.misses = counter(registry, "miss");
+    Gauge.builder("warehouse.cache.size", this, WarehouseCache::size)
+        .description("Business unit codes in the warehouse cache")
+        .register(registry);
+  }
+
+  /**
+   * Returns the cached warehouse for a code, or loads and caches it.
+   *
+   * @return a copy the caller may modify, or {@code null} if there is no active warehouse
+   */
+  public Warehouse get(String buCode, Function<String, Warehouse> loader) {
+    long seen;
+    synchronized (this) {
+      Entry entry = entries.get(buCode);
+      if (entry != null && entry.expiresAt.isAfter(clock.instant())) {
+        hits.increment();
+        return copy(entry.warehouse);
+      }
+      misses.increment();
+      seen = invalidations;
+    }
+
+    Warehouse loaded = loader.apply(buCode);
+
+    synchronized (this) {
+      if (seen == invalidations) {
+        Duration lifetime = loaded == null ? negativeTtl : ttl;
+        entries.put(buCode, new Entry(copy(loaded), clock.instant().plus(lifetime)));
+        evictOverflow();
+      }
+    }
+    return loaded;
+  }
+
+  public synchronized void invalidate(String buCode) {
+    invalidations++;
+    entries.remove(buCode);
+  }
+
+  void onWarehouseEvent(
+      @Observes(during = TransactionPhase.AFTER_COMPLETION) WarehouseEvent event) {
+    invalidate(event.getBusinessUnitCode());
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  private void evictOverflow() {
+    Iterator<Entry> oldest = entries.values().iterator();
+    while (entries.size() > maxEntries && oldest.hasNext()) {
+      oldest.next();
+      oldest.remove();
+    }
+  }
+
+  private static Counter counter(MeterRegistry registry, String result) {
+    return Counter.builder("warehouse.cache.requests")
+        .description("Lookups of active warehouses by business unit code")
+        .tag("result", result)
+        .register(registry);
+  }
+
+  private static Warehouse copy(Warehouse warehouse) {
+    if (warehouse == null) {
+      return null;
+    }
+    Warehouse copy = new Warehouse();
+    copy.businessUnitCode = warehouse.businessUnitCode;
+    copy.location = warehouse.location;
+    copy.capacity = warehouse.capacity;
+    copy.stock = warehouse.stock;
+    copy.createdAt = warehouse.createdAt;
+    copy.archivedAt = warehouse.archivedAt;
+    return copy;
+  }
+}
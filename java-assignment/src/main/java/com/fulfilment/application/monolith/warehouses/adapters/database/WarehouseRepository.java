@@ -1,14 +1,53 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseConflictException;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseFilter;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSummary;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.persistence.Cache;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.TypedQuery;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
 
 @ApplicationScoped
 public class WarehouseRepository implements WarehouseStore, PanacheRepository<DbWarehouse> {
 
+  private static final String ACTIVE_CODE_INDEX = "uk_warehouse_active_business_unit_code";
+
+  @Inject Event<WarehouseEvent> warehouseEvent;
+
+  @Inject LocationUsageRepository locationUsage;
+
+  @Inject TransactionSynchronizationRegistry transactions;
+
+  // only resolvable in builds with warehouse.stock.mode=write-behind
+  @Inject Instance<WriteBehindStockJournal> stockJournal;
+
   @Override
   public List<Warehouse> getAll() {
     return find("archivedAt is null").stream().map(DbWarehouse::toWarehouse).toList();
@@ -16,28 +55,163 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
 
   @Override
   public void create(Warehouse warehouse) {
-    DbWarehouse entity = new DbWarehouse();
-    entity.businessUnitCode = warehouse.businessUnitCode;
-    entity.location = warehouse.location;
-    entity.capacity = warehouse.capacity;
-    entity.stock = warehouse.stock;
-    entity.createdAt = warehouse.createdAt;
-    entity.archivedAt = warehouse.archivedAt;
+    DbWarehouse entity = toEntity(warehouse);
     persist(entity);
+    // insert now rather than at commit, so losing the race for the code reaches the caller
+    try {
+      flush();
+    } catch (PersistenceException e) {
+      if (isActiveCodeViolation(e)) {
+        throw new WarehouseConflictException(
+            "A warehouse with business unit code '"
+                + warehouse.businessUnitCode
+                + "' already exists.");
+      }
+      throw e;
+    }
+    trackUsage(entity, 1);
+    fire(warehouse.businessUnitCode, WarehouseEvent.Type.CREATED);
+  }
+
+  @Override
+  @Transactional(Transactional.TxType.REQUIRES_NEW)
+  public List<Warehouse> createAll(
+      List<Warehouse> warehouses, Function<Map<String, LocationUsage>, List<Warehouse>> admit) {
+    // locked in sorted order, so two imports sharing locations cannot deadlock on them
+    Map<String, LocationUsage> locked = new TreeMap<>();
+    warehouses.forEach(w -> locked.put(w.location, null));
+    locked.replaceAll((location, none) -> locationUsage.lockUsage(location));
+    List<Warehouse> admitted = admit.apply(locked);
+
+    // the inserts go out in JDBC batches on flush (statement-batch-size), and the usage ledger
+    // gets one update per location instead of one per warehouse
+    Map<String, int[]> usage = new HashMap<>();
+    for (Warehouse warehouse : admitted) {
+      DbWarehouse entity = toEntity(warehouse);
+      persist(entity);
+      if (entity.archivedAt == null) {
+        int[] added = usage.computeIfAbsent(entity.location, l -> new int[2]);
+        added[0]++;
+        added[1] += entity.capacity == null ? 0 : entity.capacity;
+      }
+    }
+    flush();
+    usage.forEach((location, added) -> locationUsage.adjust(location, added[0], added[1]));
+    admitted.forEach(w -> fire(w.businessUnitCode, WarehouseEvent.Type.CREATED));
+    return admitted;
   }
 
   @Override
   public void update(Warehouse warehouse) {
+    modifyActive(
+        warehouse.businessUnitCode,
+        active -> {
+          active.location = warehouse.location;
+          active.capacity = warehouse.capacity;
+          active.stock = warehouse.stock;
+          active.archivedAt = warehouse.archivedAt;
+        });
+  }
+
+  @Override
+  public Warehouse modifyActive(String buCode, Consumer<Warehouse> change) {
     DbWarehouse entity =
-        find("businessUnitCode = ?1 and archivedAt is null", warehouse.businessUnitCode)
+        find("businessUnitCode = ?1 and archivedAt is null", buCode)
+            .withLock(LockModeType.PESSIMISTIC_WRITE)
             .firstResult();
-    if (entity != null) {
-      entity.location = warehouse.location;
-      entity.capacity = warehouse.capacity;
-      entity.stock = warehouse.stock;
-      entity.archivedAt = warehouse.archivedAt;
-      persist(entity);
+    if (entity == null) {
+      return null;
+    }
+    if (stockJournal.isResolvable()) {
+      // movements journaled in write-behind mode belong to this row, so the change sees them
+      int journaled = stockJournal.get().drain(buCode);
+      if (journaled != 0) {
+        entity.stock = (entity.stock == null ? 0 : entity.stock) + journaled;
+      }
     }
+
+    Warehouse warehouse = entity.toWarehouse();
+    change.accept(warehouse);
+
+    trackUsage(entity, -1);
+    entity.location = warehouse.location;
+    entity.capacity = warehouse.capacity;
+    entity.stock = warehouse.stock;
+    entity.archivedAt = warehouse.archivedAt;
+    // write the change now: Hibernate flushes inserts before updates, so a replacement created
+    // later in this transaction would otherwise clash with the still active row
+    flush();
+    trackUsage(entity, 1);
+    fire(buCode, WarehouseEvent.Type.UPDATED);
+    return warehouse;
+  }
+
+  @Override
+  public Integer adjustStock(String buCode, int delta) {
+    // plain JDBC: after an HQL or native bulk update of the warehouse table Hibernate would drop
+    // every DbWarehouse from the second-level cache, so only the row changed here is evicted
+    flush();
+    long[] changed =
+        getEntityManager()
+            .unwrap(Session.class)
+            .doReturningWork(connection -> updateStock(connection, buCode, delta));
+    if (changed == null) {
+      return null;
+    }
+    evict(changed[0]);
+    fire(buCode, WarehouseEvent.Type.UPDATED);
+    return (int) changed[1];
+  }
+
+  /**
+   * Compares delta with the room left rather than stock + delta with the bounds, which cannot
+   * overflow; stock is not part of the location usage, which stays as it is.
+   *
+   * @return the id and new stock of the warehouse, or {@code null} if nothing was updated
+   */
+  private static long[] updateStock(Connection connection, String buCode, int delta)
+      throws SQLException {
+    try (PreparedStatement update =
+        connection.prepareStatement(
+            "UPDATE warehouse SET stock = COALESCE(stock, 0) + ?"
+                + " WHERE businessUnitCode = ? AND archivedAt IS NULL"
+                + " AND ? BETWEEN -COALESCE(stock, 0) AND capacity - COALESCE(stock, 0)")) {
+      update.setInt(1, delta);
+      update.setString(2, buCode);
+      update.setInt(3, delta);
+      if (update.executeUpdate() == 0) {
+        return null;
+      }
+    }
+    // the row stays locked by the update until the transaction ends, so this reads its result
+    try (PreparedStatement select =
+        connection.prepareStatement(
+            "SELECT id, stock FROM warehouse WHERE businessUnitCode = ? AND archivedAt IS NULL")) {
+      select.setString(1, buCode);
+      try (ResultSet row = select.executeQuery()) {
+        row.next();
+        return new long[] {row.getLong(1), row.getInt(2)};
+      }
+    }
+  }
+
+  /**
+   * Evicts one warehouse from the second-level cache now and again once the transaction completes,
+   * so a copy cached by another transaction in between does not outlive the change.
+   */
+  private void evict(long id) {
+    Cache cache = getEntityManager().getEntityManagerFactory().getCache();
+    cache.evict(DbWarehouse.class, id);
+    transactions.registerInterposedSynchronization(
+        new Synchronization() {
+          @Override
+          public void beforeCompletion() {}
+
+          @Override
+          public void afterCompletion(int status) {
+            cache.evict(DbWarehouse.class, id);
+          }
+        });
   }
 
   @Override
@@ -47,6 +221,8 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
             .firstResult();
     if (entity != null) {
       delete(entity);
+      trackUsage(entity, -1);
+      fire(warehouse.businessUnitCode, WarehouseEvent.Type.REMOVED);
     }
   }
 
@@ -61,9 +237,101 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
   }
 
   @Override
-  public List<Warehouse> findActiveByLocation(String location) {
-    return find("location = ?1 and archivedAt is null", location).stream()
+  public List<Warehouse> findActiveByBusinessUnitCodes(Collection<String> buCodes) {
+    if (buCodes.isEmpty()) {
+      return List.of();
+    }
+    return find("businessUnitCode in ?1 and archivedAt is null", buCodes).stream()
+        .map(DbWarehouse::toWarehouse)
+        .toList();
+  }
+
+  @Override
+  public List<Warehouse> findHistory(String buCode) {
+    return find("businessUnitCode = ?1", Sort.by("createdAt").and("id"), buCode).stream()
         .map(DbWarehouse::toWarehouse)
         .toList();
   }
+
+  /**
+   * Keyset pagination over a projection: selects only the listed columns and seeks past
+   * {@code afterId} on the primary key instead of skipping rows.
+   */
+  @Override
+  public List<WarehouseSummary> findActivePage(
+      WarehouseFilter filter, Long afterId, int maxResults) {
+    StringBuilder hql =
+        new StringBuilder(
+            "select new com.fulfilment.application.monolith.warehouses.domain.models"
+                + ".WarehouseSummary(w.id, w.businessUnitCode, w.location, w.capacity, w.stock)"
+                + " from DbWarehouse w where ");
+    Map<String, Object> parameters = new HashMap<>();
+    if (filter.asOf == null) {
+      hql.append("w.archivedAt is null");
+    } else {
+      // active at asOf: created by then and not yet archived
+      hql.append("w.createdAt <= :asOf and (w.archivedAt is null or w.archivedAt > :asOf)");
+      parameters.put("asOf", filter.asOf);
+    }
+    if (afterId != null) {
+      hql.append(" and w.id > :afterId");
+      parameters.put("afterId", afterId);
+    }
+    if (filter.location != null) {
+      hql.append(" and w.location = :location");
+      parameters.put("location", filter.location);
+    }
+    if (filter.minFreeCapacity != null) {
+      hql.append(" and w.capacity - coalesce(w.stock, 0) >= :minFreeCapacity");
+      parameters.put("minFreeCapacity", filter.minFreeCapacity);
+    }
+    if (filter.minStock != null) {
+      hql.append(" and w.stock >= :minStock");
+      parameters.put("minStock", filter.minStock);
+    }
+    if (filter.maxStock != null) {
+      hql.append(" and w.stock <= :maxStock");
+      parameters.put("maxStock", filter.maxStock);
+    }
+    hql.append(" order by w.id");
+
+    TypedQuery<WarehouseSummary> query =
+        getEntityManager().createQuery(hql.toString(), WarehouseSummary.class);
+    parameters.forEach(query::setParameter);
+    return query.setMaxResults(maxResults).getResultList();
+  }
+
+  private static DbWarehouse toEntity(Warehouse warehouse) {
+    DbWarehouse entity = new DbWarehouse();
+    entity.businessUnitCode = warehouse.businessUnitCode;
+    entity.location = warehouse.location;
+    entity.capacity = warehouse.capacity;
+    entity.stock = warehouse.stock;
+    entity.createdAt = warehouse.createdAt;
+    entity.archivedAt = warehouse.archivedAt;
+    return entity;
+  }
+
+  // adds (sign 1) or removes (sign -1) an active warehouse's share of its location usage
+  /** Tells whether {@code e} was caused by the unique index on active business unit codes. */
+  private static boolean isActiveCodeViolation(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException violation) {
+        String name = violation.getConstraintName();
+        return name != null && name.toLowerCase().contains(ACTIVE_CODE_INDEX);
+      }
+    }
+    return false;
+  }
+
+  private void trackUsage(DbWarehouse entity, int sign) {
+    if (entity.archivedAt == null) {
+      int capacity = entity.capacity == null ? 0 : entity.capacity;
+      locationUsage.adjust(entity.location, sign, sign * capacity);
+    }
+  }
+
+  private void fire(String buCode, WarehouseEvent.Type type) {
+    warehouseEvent.fire(new WarehouseEvent(buCode, type));
+  }
 }
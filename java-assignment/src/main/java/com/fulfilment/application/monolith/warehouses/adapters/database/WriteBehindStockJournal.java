@@ -0,0 +1,365 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockMovementJournal;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Write-behind {@link StockMovementJournal}. Only built with {@code
+ * warehouse.stock.mode=write-behind}.
+ *
+ * <p>One writer thread takes the queued movements in batches of up to {@code
+ * warehouse.stock.batch-size}. Per batch it locks the row of each warehouse involved once, checks
+ * the movements in order against that row plus the net of its journaled movements, and inserts the
+ * accepted ones into {@code stock_movement} in one transaction. Callers are answered after that
+ * commits, so a confirmed movement survives a crash.
+ *
+ * <p>Every {@code warehouse.stock.flush-interval} the writer adds the net change per code to
+ * {@code warehouse.stock} and deletes the journal rows, again under the row lock. The nets are
+ * summed from the journal, so the same step applies what a crashed instance left behind; it runs
+ * once at startup before any movement is accepted. Other changes of a warehouse, such as an
+ * archive or a replacement, first {@link #drain} its movements into the row they lock, so they see
+ * the journaled stock and no movement outlives the row it was checked against. Only one instance
+ * may run in this mode against a database.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "warehouse.stock.mode", stringValue = "write-behind")
+public class WriteBehindStockJournal
+    implements StockMovementJournal, PanacheRepository<DbStockMovement> {
+
+  private static final Logger LOGGER = Logger.getLogger(WriteBehindStockJournal.class.getName());
+
+  private interface Request {}
+
+  // cancelled by the caller or taken by the writer, whichever comes first
+  private static final class Result extends CompletableFuture<Integer> {
+    private final AtomicBoolean taken = new AtomicBoolean();
+
+    boolean take() {
+      return taken.compareAndSet(false, true);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      return take() && super.cancel(mayInterruptIfRunning);
+    }
+  }
+
+  private static final class Movement implements Request {
+    final String buCode;
+    final int delta;
+    final Result result = new Result();
+    int stock;
+    WarehouseValidationException refusal;
+
+    Movement(String buCode, int delta) {
+      this.buCode = buCode;
+      this.delta = delta;
+    }
+  }
+
+  private record Flush(CompletableFuture<Void> done) implements Request {}
+
+  // the stock and capacity of a locked warehouse row, with the movements checked so far added
+  private static final class Level {
+    final boolean found;
+    final int capacity;
+    int stock;
+
+    Level(boolean found, int capacity, int stock) {
+      this.found = found;
+      this.capacity = capacity;
+      this.stock = stock;
+    }
+  }
+
+  @ConfigProperty(name = "warehouse.stock.flush-interval", defaultValue = "1S")
+  Duration flushInterval;
+
+  @ConfigProperty(name = "warehouse.stock.batch-size", defaultValue = "500")
+  int batchSize;
+
+  @Inject Event<WarehouseEvent> warehouseEvent;
+
+  private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+
+  private volatile boolean running;
+  private Thread writer;
+
+  void start(@Observes StartupEvent event) {
+    flushJournal();
+    running = true;
+    writer = new Thread(this::run, "stock-movement-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  void stop(@Observes ShutdownEvent event) throws InterruptedException {
+    running = false;
+    if (writer != null) {
+      // wakes the writer, which flushes and stops once the queue is empty
+      queue.offer(new Flush(new CompletableFuture<>()));
+      writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+  }
+
+  @Override
+  public CompletionStage<Integer> append(String buCode, int delta) {
+    if (!running) {
+      return CompletableFuture.failedFuture(
+          new IllegalStateException("The stock movement journal is not running."));
+    }
+    Movement movement = new Movement(buCode, delta);
+    queue.offer(movement);
+    return movement.result;
+  }
+
+  /**
+   * Removes the journaled movements of a warehouse and returns their net change, for a caller that
+   * is about to change the warehouse row and holds its lock. The writer needs the same lock to
+   * journal or flush movements of that warehouse, so none are added until the caller commits.
+   */
+  int drain(String buCode) {
+    int net = journaledNet(buCode);
+    delete("businessUnitCode", buCode);
+    return net;
+  }
+
+  /** Flushes the movements journaled so far without waiting for the flush interval. */
+  CompletableFuture<Void> flushNow() {
+    Flush flush = new Flush(new CompletableFuture<>());
+    queue.offer(flush);
+    return flush.done();
+  }
+
+  private void run() {
+    long nextFlush = System.nanoTime() + flushInterval.toNanos();
+    while (running || !queue.isEmpty()) {
+      List<Request> batch = new ArrayList<>();
+      try {
+        Request first = queue.poll(nextFlush - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (first != null) {
+          batch.add(first);
+          queue.drainTo(batch, batchSize - 1);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+
+      List<Movement> movements = new ArrayList<>();
+      List<Flush> flushes = new ArrayList<>();
+      for (Request request : batch) {
+        if (request instanceof Movement movement) {
+          movements.add(movement);
+        } else {
+          flushes.add((Flush) request);
+        }
+      }
+      // movements whose callers gave up waiting are dropped
+      movements.removeIf(movement -> !movement.result.take());
+      if (!movements.isEmpty()) {
+        append(movements);
+      }
+      if (!flushes.isEmpty() || System.nanoTime() - nextFlush >= 0) {
+        boolean flushed = flushJournal();
+        for (Flush flush : flushes) {
+          if (flushed) {
+            flush.done().complete(null);
+          } else {
+            flush.done().completeExceptionally(
+                new IllegalStateException("Failed to flush the stock movement journal."));
+          }
+        }
+        nextFlush = System.nanoTime() + flushInterval.toNanos();
+      }
+    }
+
+    Request request;
+    while ((request = queue.poll()) != null) {
+      if (request instanceof Movement movement) {
+        movement.result.completeExceptionally(
+            new IllegalStateException("The stock movement journal is not running."));
+      }
+    }
+  }
+
+  private void append(List<Movement> movements) {
+    try {
+      QuarkusTransaction.requiringNew()
+          .run(
+              () -> {
+                Map<String, Level> levels = new HashMap<>();
+                LocalDateTime now = LocalDateTime.now();
+                for (Movement movement : movements) {
+                  Level level = levels.computeIfAbsent(movement.buCode, this::lock);
+                  check(movement, level);
+                  if (movement.refusal == null) {
+                    DbStockMovement entry = new DbStockMovement();
+                    entry.businessUnitCode = movement.buCode;
+                    entry.delta = movement.delta;
+                    entry.createdAt = now;
+                    persist(entry);
+                  }
+                }
+                // the inserts go out in JDBC batches (statement-batch-size)
+                flush();
+              });
+    } catch (RuntimeException e) {
+      LOGGER.error("Failed to journal " + movements.size() + " stock movements", e);
+      movements.forEach(movement -> movement.result.completeExceptionally(e));
+      return;
+    }
+
+    for (Movement movement : movements) {
+      if (movement.refusal != null) {
+        movement.result.completeExceptionally(movement.refusal);
+      } else {
+        movement.result.complete(movement.stock);
+      }
+    }
+  }
+
+  private Level lock(String buCode) {
+    DbWarehouse warehouse = lockActive(buCode);
+    if (warehouse == null) {
+      return new Level(false, 0, 0);
+    }
+    int stock = warehouse.stock == null ? 0 : warehouse.stock;
+    int capacity = warehouse.capacity == null ? 0 : warehouse.capacity;
+    return new Level(true, capacity, stock + journaledNet(buCode));
+  }
+
+  // the row stays locked until the transaction commits, so no other writer changes it in between
+  private DbWarehouse lockActive(String buCode) {
+    return getEntityManager()
+        .createQuery(
+            "from DbWarehouse where businessUnitCode = :code and archivedAt is null",
+            DbWarehouse.class)
+        .setParameter("code", buCode)
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .getResultStream()
+        .findFirst()
+        .orElse(null);
+  }
+
+  private int journaledNet(String buCode) {
+    return getEntityManager()
+        .createQuery(
+            "select coalesce(sum(m.delta), 0) from DbStockMovement m"
+                + " where m.businessUnitCode = :code",
+            Long.class)
+        .setParameter("code", buCode)
+        .getSingleResult()
+        .intValue();
+  }
+
+  private static void check(Movement movement, Level level) {
+    movement.refusal = null;
+    if (!level.found) {
+      movement.refusal =
+          new WarehouseNotFoundException(
+              "No active warehouse found with business unit code '" + movement.buCode + "'.");
+      return;
+    }
+    long stock = (long) level.stock + movement.delta;
+    if (stock < 0 || stock > level.capacity) {
+      movement.refusal =
+          new WarehouseValidationException(
+              "Stock movement of "
+                  + movement.delta
+                  + " would take the stock ("
+                  + level.stock
+                  + ") of warehouse '"
+                  + movement.buCode
+                  + "' outside 0 to its capacity ("
+                  + level.capacity
+                  + ").");
+      return;
+    }
+    level.stock = (int) stock;
+    movement.stock = level.stock;
+  }
+
+  private boolean flushJournal() {
+    try {
+      int codes = QuarkusTransaction.requiringNew().call(this::applyJournal);
+      if (codes > 0) {
+        LOGGER.debugf("Flushed the stock movements of %d warehouses", codes);
+      }
+      return true;
+    } catch (RuntimeException e) {
+      LOGGER.error("Failed to flush the stock movement journal, retrying at the next flush", e);
+      return false;
+    }
+  }
+
+  private int applyJournal() {
+    // sorted, so the rows are always locked in the same order
+    List<String> codes =
+        getEntityManager()
+            .createQuery(
+                "select distinct m.businessUnitCode from DbStockMovement m"
+                    + " order by m.businessUnitCode",
+                String.class)
+            .getResultList();
+    for (String buCode : codes) {
+      DbWarehouse warehouse = lockActive(buCode);
+      int delta = journaledNet(buCode);
+      if (warehouse == null) {
+        // only a journal left by a crash can name a code without an active warehouse, since
+        // archiving and replacing drain the journal first
+        LOGGER.errorf(
+            "Discarding a net stock movement of %d: no active warehouse with business unit code"
+                + " '%s'",
+            delta,
+            buCode);
+        delete("businessUnitCode", buCode);
+        continue;
+      }
+      int capacity = warehouse.capacity == null ? 0 : warehouse.capacity;
+      long stock = (long) (warehouse.stock == null ? 0 : warehouse.stock) + delta;
+      if (stock < 0 || stock > capacity) {
+        LOGGER.errorf(
+            "Keeping the stock movements of warehouse '%s' in the journal: their net of %d would"
+                + " take its stock (%d) outside 0 to its capacity (%d)",
+            buCode,
+            delta,
+            warehouse.stock,
+            capacity);
+        continue;
+      }
+      // a change of the loaded entity, so Hibernate updates only this warehouse in the
+      // second-level cache
+      warehouse.stock = (int) stock;
+      delete("businessUnitCode", buCode);
+      warehouseEvent.fire(new WarehouseEvent(buCode, WarehouseEvent.Type.UPDATED));
+    }
+    return codes.size();
+  }
+}
@@ -0,0 +1,157 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.pagination.PageCursor;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseFilter;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSummary;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveWarehouseStore;
+import com.warehouse.api.beans.StockLevel;
+import com.warehouse.api.beans.StockMovement;
+import com.warehouse.api.beans.Warehouse;
+import com.warehouse.api.beans.WarehouseVersion;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.validation.constraints.NotNull;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import java.util.List;
+import org.jboss.resteasy.reactive.RestResponse;
+
+/**
+ * Serves the warehouse API of {@code warehouse-openapi.yaml} in place of {@link
+ * WarehouseResourceImpl} when built with {@code warehouse.api.mode=reactive}.
+ *
+ * <p>The reads return a {@link Uni} from the {@link ReactiveWarehouseStore} and run on the event
+ * loop, so a slow query holds neither a worker thread nor a JDBC connection. The writes still run
+ * on worker threads through the {@link WarehouseWriteHandler} it shares with {@link
+ * WarehouseResourceImpl}, since the use cases rely on the transaction, the row locks and the events
+ * of the blocking store, and run on virtual threads when {@code quarkus.virtual-threads.enabled}
+ * is set.
+ */
+@Path("warehouse")
+@ApplicationScoped
+@IfBuildProperty(name = "warehouse.api.mode", stringValue = "reactive")
+public class ReactiveWarehouseResource {
+
+  private final ReactiveWarehouseStore warehouseStore;
+
+  private final WarehouseWriteHandler writes;
+
+  @Inject
+  public ReactiveWarehouseResource(
+      ReactiveWarehouseStore warehouseStore, WarehouseWriteHandler writes) {
+    this.warehouseStore = warehouseStore;
+    this.writes = writes;
+  }
+
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  public Uni<RestResponse<List<Warehouse>>> listAllWarehousesUnits(
+      @QueryParam("cursor") String cursor,
+      @QueryParam("limit") Integer limit,
+      @QueryParam("location") String location,
+      @QueryParam("minFreeCapacity") Integer minFreeCapacity,
+      @QueryParam("minStock") Integer minStock,
+      @QueryParam("maxStock") Integer maxStock,
+      @QueryParam("asOf") String asOf) {
+    int pageSize = PageCursor.limit(limit);
+    WarehouseFilter filter =
+        WarehouseApiMapper.toFilter(location, minFreeCapacity, minStock, maxStock, asOf);
+
+    // one extra row tells whether another page follows
+    return warehouseStore
+        .findActivePage(filter, PageCursor.decode(cursor), pageSize + 1)
+        .map(
+            rows -> {
+              List<WarehouseSummary> page =
+                  rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+              var response =
+                  RestResponse.ResponseBuilder.ok(
+                      page.stream().map(WarehouseApiMapper::toWarehouseResponse).toList());
+              if (rows.size() > pageSize) {
+                response.header(
+                    PageCursor.NEXT_CURSOR_HEADER, PageCursor.encode(page.get(pageSize - 1).id));
+              }
+              return response.build();
+            });
+  }
+
+  @GET
+  @Path("{id}")
+  @Produces(MediaType.APPLICATION_JSON)
+  public Uni<Warehouse> getAWarehouseUnitByID(@PathParam("id") String id) {
+    return warehouseStore
+        .findByBusinessUnitCode(id)
+        .onItem()
+        .ifNull()
+        .failWith(() -> WarehouseApiMapper.notFound(id))
+        .map(WarehouseApiMapper::toWarehouseResponse);
+  }
+
+  @GET
+  @Path("{id}/history")
+  @Produces(MediaType.APPLICATION_JSON)
+  public Uni<List<WarehouseVersion>> getEveryVersionOfAWarehouseUnit(@PathParam("id") String id) {
+    return warehouseStore
+        .findHistory(id)
+        .map(
+            versions -> {
+              if (versions.isEmpty()) {
+                throw WarehouseApiMapper.notFound(id);
+              }
+              return versions.stream().map(WarehouseApiMapper::toVersionResponse).toList();
+            });
+  }
+
+  @POST
+  @Produces(MediaType.APPLICATION_JSON)
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Transactional
+  @RunOnVirtualThread
+  public Warehouse createANewWarehouseUnit(@NotNull Warehouse data) {
+    return writes.create(data);
+  }
+
+  @DELETE
+  @Path("{id}")
+  @Transactional
+  @RunOnVirtualThread
+  public RestResponse<Void> archiveAWarehouseUnitByID(@PathParam("id") String id) {
+    var response = RestResponse.ResponseBuilder.<Void>noContent();
+    writes.archive(id, response::header);
+    return response.build();
+  }
+
+  @POST
+  @Path("{businessUnitCode}/replacement")
+  @Produces(MediaType.APPLICATION_JSON)
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Transactional
+  @RunOnVirtualThread
+  public RestResponse<Warehouse> replaceTheCurrentActiveWarehouse(
+      @PathParam("businessUnitCode") String businessUnitCode, @NotNull Warehouse data) {
+    var response = RestResponse.ResponseBuilder.<Warehouse>ok();
+    return response.entity(writes.replace(businessUnitCode, data, response::header)).build();
+  }
+
+  @POST
+  @Path("{businessUnitCode}/stock-movements")
+  @Produces(MediaType.APPLICATION_JSON)
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Transactional
+  @RunOnVirtualThread
+  public StockLevel adjustTheStockOfAWarehouseUnit(
+      @PathParam("businessUnitCode") String businessUnitCode, @NotNull StockMovement data) {
+    return writes.adjustStock(businessUnitCode, data);
+  }
+}
@@ -0,0 +1,112 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseFilter;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSummary;
+import com.warehouse.api.beans.StockLevel;
+import com.warehouse.api.beans.Warehouse;
+import com.warehouse.api.beans.WarehouseVersion;
+import jakarta.ws.rs.WebApplicationException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ * Conversions between the generated warehouse API beans and the domain models, shared by the
+ * blocking and the reactive warehouse resource.
+ */
+final class WarehouseApiMapper {
+
+  private WarehouseApiMapper() {}
+
+  static WarehouseFilter toFilter(
+      String location, Integer minFreeCapacity, Integer minStock, Integer maxStock, String asOf) {
+    var filter = new WarehouseFilter();
+    filter.location = location;
+    filter.minFreeCapacity = minFreeCapacity;
+    filter.minStock = minStock;
+    filter.maxStock = maxStock;
+    filter.asOf = parseInstant(asOf);
+    return filter;
+  }
+
+  static Warehouse toWarehouseResponse(WarehouseSummary warehouse) {
+    var response = new Warehouse();
+    response.setBusinessUnitCode(warehouse.businessUnitCode);
+    response.setLocation(warehouse.location);
+    response.setCapacity(warehouse.capacity);
+    response.setStock(warehouse.stock);
+    return response;
+  }
+
+  static Warehouse toWarehouseResponse(
+      com.fulfilment.application.monolith.warehouses.domain.models.Warehouse warehouse) {
+    var response = new Warehouse();
+    response.setBusinessUnitCode(warehouse.businessUnitCode);
+    response.setLocation(warehouse.location);
+    response.setCapacity(warehouse.capacity);
+    response.setStock(warehouse.stock);
+    return response;
+  }
+
+  static WarehouseVersion toVersionResponse(
+      com.fulfilment.application.monolith.warehouses.domain.models.Warehouse warehouse) {
+    var response = new WarehouseVersion();
+    response.setBusinessUnitCode(warehouse.businessUnitCode);
+    response.setLocation(warehouse.location);
+    response.setCapacity(warehouse.capacity);
+    response.setStock(warehouse.stock);
+    response.setCreatedAt(toDate(warehouse.createdAt));
+    response.setArchivedAt(toDate(warehouse.archivedAt));
+    return response;
+  }
+
+  static StockLevel toStockLevel(String businessUnitCode, int stock) {
+    var response = new StockLevel();
+    response.setBusinessUnitCode(businessUnitCode);
+    response.setStock(stock);
+    return response;
+  }
+
+  static com.fulfilment.application.monolith.warehouses.domain.models.Warehouse toDomainWarehouse(
+      Warehouse apiWarehouse) {
+    var warehouse = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
+    warehouse.businessUnitCode = apiWarehouse.getBusinessUnitCode();
+    warehouse.location = apiWarehouse.getLocation();
+    warehouse.capacity = apiWarehouse.getCapacity();
+    warehouse.stock = apiWarehouse.getStock();
+    return warehouse;
+  }
+
+  static WebApplicationException notFound(String id) {
+    return new WebApplicationException(
+        "Warehouse with business unit code '" + id + "' not found.", 404);
+  }
+
+  // timestamps are stored as local date-times of the server's time zone, see LocalDateTime.now()
+  private static Date toDate(LocalDateTime timestamp) {
+    if (timestamp == null) {
+      return null;
+    }
+    return Date.from(timestamp.atZone(ZoneId.systemDefault()).toInstant());
+  }
+
+  private static LocalDateTime parseInstant(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    try {
+      return OffsetDateTime.parse(value)
+          .atZoneSameInstant(ZoneId.systemDefault())
+          .toLocalDateTime();
+    } catch (DateTimeParseException e) {
+      try {
+        return LocalDateTime.parse(value);
+      } catch (DateTimeParseException ignored) {
+        throw new WebApplicationException(
+            "asOf must be an ISO-8601 date-time, got '" + value + "'.", 400);
+      }
+    }
+  }
+}
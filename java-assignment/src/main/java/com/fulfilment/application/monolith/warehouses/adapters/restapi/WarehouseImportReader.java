@@ -0,0 +1,188 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportRow;
+import jakarta.ws.rs.WebApplicationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads warehouse import rows one line at a time, so an import of any size is never held in
+ * memory as a whole. Blank lines are skipped. A line that cannot be parsed becomes an invalid row
+ * rather than failing the import.
+ *
+ * <p>CSV input starts with a header naming the columns {@code businessUnitCode}, {@code location},
+ * {@code capacity} and optionally {@code stock}, in any order. Values are separated by commas and
+ * not quoted; neither business unit codes nor location identifiers contain commas. NDJSON input
+ * holds one warehouse object per line, with the same fields as {@code POST /warehouse}.
+ */
+abstract class WarehouseImportReader implements Iterator<WarehouseImportRow> {
+
+  private static final String CODE = "businessUnitCode";
+  private static final String LOCATION = "location";
+  private static final String CAPACITY = "capacity";
+  private static final String STOCK = "stock";
+
+  private final BufferedReader reader;
+  private long lineNumber;
+  private WarehouseImportRow next;
+
+  private WarehouseImportReader(BufferedReader reader) {
+    this.reader = reader;
+  }
+
+  static WarehouseImportReader csv(BufferedReader reader) {
+    return new Csv(reader);
+  }
+
+  static WarehouseImportReader ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+    return new Ndjson(reader, objectMapper);
+  }
+
+  /** Parses one non-blank line into a row. */
+  abstract WarehouseImportRow parse(long line, String text);
+
+  @Override
+  public boolean hasNext() {
+    if (next == null) {
+      String text = nextLine();
+      if (text != null) {
+        next = parse(lineNumber, text);
+      }
+    }
+    return next != null;
+  }
+
+  @Override
+  public WarehouseImportRow next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    WarehouseImportRow row = next;
+    next = null;
+    return row;
+  }
+
+  // the next non-blank line, or null at the end of the input
+  String nextLine() {
+    try {
+      String text;
+      do {
+        text = reader.readLine();
+        lineNumber++;
+      } while (text != null && text.isBlank());
+      return text;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static WarehouseImportRow row(
+      long line, String code, String location, String capacity, String stock) {
+    if (code == null || code.isBlank()) {
+      return WarehouseImportRow.invalid(line, CODE + " is required.");
+    }
+    if (location == null || location.isBlank()) {
+      return WarehouseImportRow.invalid(line, LOCATION + " is required.");
+    }
+    if (capacity == null || capacity.isBlank()) {
+      return WarehouseImportRow.invalid(line, CAPACITY + " is required.");
+    }
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = code.trim();
+    warehouse.location = location.trim();
+    try {
+      warehouse.capacity = Integer.parseInt(capacity.trim());
+      warehouse.stock = stock == null || stock.isBlank() ? null : Integer.parseInt(stock.trim());
+    } catch (NumberFormatException e) {
+      return WarehouseImportRow.invalid(line, CAPACITY + " and " + STOCK + " must be integers.");
+    }
+    if (warehouse.capacity < 0 || (warehouse.stock != null && warehouse.stock < 0)) {
+      return WarehouseImportRow.invalid(
+          line, CAPACITY + " and " + STOCK + " must not be negative.");
+    }
+    return WarehouseImportRow.parsed(line, warehouse);
+  }
+
+  private static class Csv extends WarehouseImportReader {
+
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    Csv(BufferedReader reader) {
+      super(reader);
+      String header = nextLine();
+      if (header == null) {
+        throw new WebApplicationException("The CSV header line is missing.", 400);
+      }
+      String[] names = header.split(",", -1);
+      for (int i = 0; i < names.length; i++) {
+        columns.put(names[i].trim().toLowerCase(Locale.ROOT), i);
+      }
+      for (String required : new String[] {CODE, LOCATION, CAPACITY}) {
+        if (!columns.containsKey(required.toLowerCase(Locale.ROOT))) {
+          throw new WebApplicationException(
+              "The CSV header has no '" + required + "' column.", 400);
+        }
+      }
+    }
+
+    @Override
+    WarehouseImportRow parse(long line, String text) {
+      String[] values = text.split(",", -1);
+      if (values.length != columns.size()) {
+        return WarehouseImportRow.invalid(
+            line, "Expected " + columns.size() + " values but found " + values.length + ".");
+      }
+      return row(
+          line,
+          value(values, CODE),
+          value(values, LOCATION),
+          value(values, CAPACITY),
+          value(values, STOCK));
+    }
+
+    private String value(String[] values, String column) {
+      Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+      return index == null ? null : values[index];
+    }
+  }
+
+  private static class Ndjson extends WarehouseImportReader {
+
+    private final ObjectMapper objectMapper;
+
+    Ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+      super(reader);
+      this.objectMapper = objectMapper;
+    }
+
+    @Override
+    WarehouseImportRow parse(long line, String text) {
+      JsonNode node;
+      try {
+        node = objectMapper.readTree(text);
+      } catch (JsonProcessingException e) {
+        return WarehouseImportRow.invalid(line, "Invalid JSON: " + e.getOriginalMessage());
+      }
+      if (!node.isObject()) {
+        return WarehouseImportRow.invalid(line, "Expected a JSON object.");
+      }
+      return row(
+          line, text(node, CODE), text(node, LOCATION), text(node, CAPACITY), text(node, STOCK));
+    }
+
+    private static String text(JsonNode node, String field) {
+      JsonNode value = node.get(field);
+      return value == null || value.isNull() ? null : value.asText();
+    }
+  }
+}
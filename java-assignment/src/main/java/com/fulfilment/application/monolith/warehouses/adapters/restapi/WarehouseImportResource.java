@@ -0,0 +1,70 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportReport;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ImportWarehousesOperation;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import org.jboss.logging.Logger;
+
+/**
+ * Bulk creation of warehouses from a CSV or NDJSON upload. The body is parsed while it is read and
+ * written in chunks, each committed on its own; the response reports how many rows were imported
+ * and why the others were not.
+ *
+ * <p>Not part of the generated {@code WarehouseResource}: the OpenAPI generator cannot bind a
+ * streamed request body.
+ */
+@Path("warehouse/import")
+@ApplicationScoped
+@Produces(MediaType.APPLICATION_JSON)
+public class WarehouseImportResource {
+
+  public static final String TEXT_CSV = "text/csv";
+  public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+  private static final Logger LOGGER = Logger.getLogger(WarehouseImportResource.class.getName());
+
+  @Inject ImportWarehousesOperation importWarehousesOperation;
+
+  @Inject ObjectMapper objectMapper;
+
+  @POST
+  @Consumes(TEXT_CSV)
+  public WarehouseImportReport importCsv(InputStream body) {
+    return importFrom(body, WarehouseImportReader::csv);
+  }
+
+  @POST
+  @Consumes(APPLICATION_NDJSON)
+  public WarehouseImportReport importNdjson(InputStream body) {
+    return importFrom(body, reader -> WarehouseImportReader.ndjson(reader, objectMapper));
+  }
+
+  private WarehouseImportReport importFrom(
+      InputStream body, Function<BufferedReader, WarehouseImportReader> format) {
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    try {
+      return importWarehousesOperation.importWarehouses(format.apply(reader));
+    } catch (UncheckedIOException e) {
+      // chunks committed before the failure stay imported
+      LOGGER.warn("Reading the warehouse import failed: " + e.getMessage());
+      throw new WebApplicationException(
+          "Reading the import failed after some rows may have been imported: " + e.getMessage(),
+          400);
+    }
+  }
+}
@@ -1,106 +1,102 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
-import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
-import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
-import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
-import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
+import com.fulfilment.application.monolith.pagination.PageCursor;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSummary;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import com.warehouse.api.WarehouseResource;
+import com.warehouse.api.beans.StockLevel;
+import com.warehouse.api.beans.StockMovement;
 import com.warehouse.api.beans.Warehouse;
+import com.warehouse.api.beans.WarehouseVersion;
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.vertx.core.http.HttpServerResponse;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.constraints.NotNull;
-import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
 import java.util.List;
-import org.jboss.logging.Logger;
 
+/**
+ * Serves the warehouse API on worker threads, unless {@code warehouse.api.mode=reactive} selects
+ * {@link ReactiveWarehouseResource} at build time.
+ */
 @RequestScoped
+@RunOnVirtualThread
+@UnlessBuildProperty(name = "warehouse.api.mode", stringValue = "reactive", enableIfMissing = true)
 public class WarehouseResourceImpl implements WarehouseResource {
 
-  private static final Logger LOGGER = Logger.getLogger(WarehouseResourceImpl.class.getName());
-
   @Inject private WarehouseStore warehouseStore;
 
-  @Inject private CreateWarehouseOperation createWarehouseOperation;
-
-  @Inject private ArchiveWarehouseOperation archiveWarehouseOperation;
+  @Inject private WarehouseWriteHandler writes;
 
-  @Inject private ReplaceWarehouseOperation replaceWarehouseOperation;
+  @Context HttpServerResponse httpResponse;
 
   @Override
-  public List<Warehouse> listAllWarehousesUnits() {
-    return warehouseStore.getAll().stream().map(this::toWarehouseResponse).toList();
+  public List<Warehouse> listAllWarehousesUnits(
+      String cursor,
+      Integer limit,
+      String location,
+      Integer minFreeCapacity,
+      Integer minStock,
+      Integer maxStock,
+      String asOf) {
+    int pageSize = PageCursor.limit(limit);
+    var filter = WarehouseApiMapper.toFilter(location, minFreeCapacity, minStock, maxStock, asOf);
+
+    // one extra row tells whether another page follows
+    List<WarehouseSummary> rows =
+        warehouseStore.findActivePage(filter, PageCursor.decode(cursor), pageSize + 1);
+    if (rows.size() > pageSize) {
+      rows = rows.subList(0, pageSize);
+      httpResponse.putHeader(
+          PageCursor.NEXT_CURSOR_HEADER, PageCursor.encode(rows.get(pageSize - 1).id));
+    }
+    return rows.stream().map(WarehouseApiMapper::toWarehouseResponse).toList();
   }
 
   @Override
   @Transactional
   public Warehouse createANewWarehouseUnit(@NotNull Warehouse data) {
-    var domainWarehouse = toDomainWarehouse(data);
-    try {
-      createWarehouseOperation.create(domainWarehouse);
-    } catch (WarehouseValidationException e) {
-      LOGGER.warn("Warehouse creation validation failed: " + e.getMessage());
-      throw new WebApplicationException(e.getMessage(), 400);
-    }
-    return toWarehouseResponse(domainWarehouse);
+    return writes.create(data);
   }
 
   @Override
   public Warehouse getAWarehouseUnitByID(String id) {
     var warehouse = warehouseStore.findByBusinessUnitCode(id);
     if (warehouse == null) {
-      throw new WebApplicationException(
-          "Warehouse with business unit code '" + id + "' not found.", 404);
+      throw WarehouseApiMapper.notFound(id);
     }
-    return toWarehouseResponse(warehouse);
+    return WarehouseApiMapper.toWarehouseResponse(warehouse);
+  }
+
+  @Override
+  public List<WarehouseVersion> getEveryVersionOfAWarehouseUnit(String id) {
+    var versions = warehouseStore.findHistory(id);
+    if (versions.isEmpty()) {
+      throw WarehouseApiMapper.notFound(id);
+    }
+    return versions.stream().map(WarehouseApiMapper::toVersionResponse).toList();
   }
 
   @Override
   @Transactional
   public void archiveAWarehouseUnitByID(String id) {
-    var warehouse = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
-    warehouse.businessUnitCode = id;
-    try {
-      archiveWarehouseOperation.archive(warehouse);
-    } catch (WarehouseValidationException e) {
-      LOGGER.warn("Warehouse archive validation failed: " + e.getMessage());
-      throw new WebApplicationException(e.getMessage(), 404);
-    }
+    writes.archive(id, httpResponse::putHeader);
   }
 
   @Override
   @Transactional
   public Warehouse replaceTheCurrentActiveWarehouse(
       String businessUnitCode, @NotNull Warehouse data) {
-    var domainWarehouse = toDomainWarehouse(data);
-    domainWarehouse.businessUnitCode = businessUnitCode;
-    try {
-      replaceWarehouseOperation.replace(domainWarehouse);
-    } catch (WarehouseValidationException e) {
-      LOGGER.warn("Warehouse replacement validation failed: " + e.getMessage());
-      throw new WebApplicationException(e.getMessage(), 400);
-    }
-    return toWarehouseResponse(domainWarehouse);
+    return writes.replace(businessUnitCode, data, httpResponse::putHeader);
   }
 
-  private Warehouse toWarehouseResponse(
-      com.fulfilment.application.monolith.warehouses.domain.models.Warehouse warehouse) {
-    var response = new Warehouse();
-    response.setBusinessUnitCode(warehouse.businessUnitCode);
-    response.setLocation(warehouse.location);
-    response.setCapacity(warehouse.capacity);
-    response.setStock(warehouse.stock);
-    return response;
-  }
-
-  private com.fulfilment.application.monolith.warehouses.domain.models.Warehouse toDomainWarehouse(
-      Warehouse apiWarehouse) {
-    var warehouse = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
-    warehouse.businessUnitCode = apiWarehouse.getBusinessUnitCode();
-    warehouse.location = apiWarehouse.getLocation();
-    warehouse.capacity = apiWarehouse.getCapacity();
-    warehouse.stock = apiWarehouse.getStock();
-    return warehouse;
+  @Override
+  @Transactional
+  public StockLevel adjustTheStockOfAWarehouseUnit(
+      String businessUnitCode, @NotNull StockMovement data) {
+    return writes.adjustStock(businessUnitCode, data);
   }
 }
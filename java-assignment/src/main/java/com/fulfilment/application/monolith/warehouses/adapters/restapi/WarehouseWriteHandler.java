@@ -0,0 +1,124 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseConflictException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseUnavailableException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.ports.AdjustStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
+import com.warehouse.api.beans.StockLevel;
+import com.warehouse.api.beans.StockMovement;
+import com.warehouse.api.beans.Warehouse;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import java.util.function.BiConsumer;
+import org.jboss.logging.Logger;
+
+/**
+ * Runs the warehouse writes for the blocking and the reactive warehouse resource and maps the
+ * outcome of the use cases to the API: response beans, response headers and HTTP status codes.
+ * The resources keep the transaction and the thread the writes run on.
+ */
+@ApplicationScoped
+class WarehouseWriteHandler {
+
+  /** Response header of an archive carrying the number of fulfillment assignments removed. */
+  static final String REMOVED_ASSIGNMENTS_HEADER = "X-Removed-Assignments";
+
+  /** Response header of a replacement carrying the number of assignments carried over. */
+  static final String CARRIED_OVER_ASSIGNMENTS_HEADER = "X-Carried-Over-Assignments";
+
+  private static final Logger LOGGER = Logger.getLogger(WarehouseWriteHandler.class.getName());
+
+  private final CreateWarehouseOperation createWarehouseOperation;
+
+  private final ArchiveWarehouseOperation archiveWarehouseOperation;
+
+  private final ReplaceWarehouseOperation replaceWarehouseOperation;
+
+  private final AdjustStockOperation adjustStockOperation;
+
+  @Inject
+  WarehouseWriteHandler(
+      CreateWarehouseOperation createWarehouseOperation,
+      ArchiveWarehouseOperation archiveWarehouseOperation,
+      ReplaceWarehouseOperation replaceWarehouseOperation,
+      AdjustStockOperation adjustStockOperation) {
+    this.createWarehouseOperation = createWarehouseOperation;
+    this.archiveWarehouseOperation = archiveWarehouseOperation;
+    this.replaceWarehouseOperation = replaceWarehouseOperation;
+    this.adjustStockOperation = adjustStockOperation;
+  }
+
+  Warehouse create(Warehouse data) {
+    var domainWarehouse = WarehouseApiMapper.toDomainWarehouse(data);
+    try {
+      createWarehouseOperation.create(domainWarehouse);
+    } catch (WarehouseValidationException e) {
+      LOGGER.warn("Warehouse creation validation failed: " + e.getMessage());
+      throw new WebApplicationException(e.getMessage(), 400);
+    } catch (WarehouseConflictException e) {
+      LOGGER.warn("Warehouse creation conflicted: " + e.getMessage());
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
+    return WarehouseApiMapper.toWarehouseResponse(domainWarehouse);
+  }
+
+  /**
+   * Archives the warehouse and passes the {@link #REMOVED_ASSIGNMENTS_HEADER} to {@code headers}.
+   */
+  void archive(String id, BiConsumer<String, String> headers) {
+    var warehouse = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
+    warehouse.businessUnitCode = id;
+    long removed;
+    try {
+      removed = archiveWarehouseOperation.archive(warehouse);
+    } catch (WarehouseValidationException e) {
+      LOGGER.warn("Warehouse archive validation failed: " + e.getMessage());
+      throw new WebApplicationException(e.getMessage(), 404);
+    }
+    headers.accept(REMOVED_ASSIGNMENTS_HEADER, Long.toString(removed));
+  }
+
+  /**
+   * Replaces the warehouse and passes the {@link #CARRIED_OVER_ASSIGNMENTS_HEADER} to {@code
+   * headers}.
+   */
+  Warehouse replace(String businessUnitCode, Warehouse data, BiConsumer<String, String> headers) {
+    var domainWarehouse = WarehouseApiMapper.toDomainWarehouse(data);
+    domainWarehouse.businessUnitCode = businessUnitCode;
+    long carriedOver;
+    try {
+      carriedOver = replaceWarehouseOperation.replace(domainWarehouse);
+    } catch (WarehouseValidationException e) {
+      LOGGER.warn("Warehouse replacement validation failed: " + e.getMessage());
+      throw new WebApplicationException(e.getMessage(), 400);
+    } catch (WarehouseConflictException e) {
+      LOGGER.warn("Warehouse replacement conflicted: " + e.getMessage());
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
+    headers.accept(CARRIED_OVER_ASSIGNMENTS_HEADER, Long.toString(carriedOver));
+    return WarehouseApiMapper.toWarehouseResponse(domainWarehouse);
+  }
+
+  StockLevel adjustStock(String businessUnitCode, StockMovement data) {
+    if (data.getDelta() == null) {
+      throw new WebApplicationException("Stock movement delta was not set on request.", 400);
+    }
+    try {
+      int stock = adjustStockOperation.adjust(businessUnitCode, data.getDelta());
+      return WarehouseApiMapper.toStockLevel(businessUnitCode, stock);
+    } catch (WarehouseNotFoundException e) {
+      throw new WebApplicationException(e.getMessage(), 404);
+    } catch (WarehouseValidationException e) {
+      LOGGER.warn("Stock movement rejected: " + e.getMessage());
+      throw new WebApplicationException(e.getMessage(), 409);
+    } catch (WarehouseUnavailableException e) {
+      LOGGER.warn("Stock movement timed out: " + e.getMessage());
+      throw new WebApplicationException(e.getMessage(), 503);
+    }
+  }
+}
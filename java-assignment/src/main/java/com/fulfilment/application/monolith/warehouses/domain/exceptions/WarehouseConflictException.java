@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.warehouses.domain.exceptions;
+
+/**
+ * Thrown when a write collides with a concurrent change, such as another transaction creating an
+ * active warehouse with the same business unit code first.
+ */
+public class WarehouseConflictException extends RuntimeException {
+
+  public WarehouseConflictException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.warehouses.domain.exceptions;
+
+/** Thrown when an operation names a business unit code that has no active warehouse. */
+public class WarehouseNotFoundException extends WarehouseValidationException {
+
+  public WarehouseNotFoundException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.warehouses.domain.exceptions;
+
+/** Thrown when a warehouse operation could not be completed in time; the caller may retry. */
+public class WarehouseUnavailableException extends RuntimeException {
+
+  public WarehouseUnavailableException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,17 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+public class LocationUsage {
+  public String location;
+
+  // number of active warehouses at this location
+  public int activeWarehouses;
+
+  // sum of the capacities of the active warehouses at this location
+  public int usedCapacity;
+
+  public LocationUsage(String location, int activeWarehouses, int usedCapacity) {
+    this.location = location;
+    this.activeWarehouses = activeWarehouses;
+    this.usedCapacity = usedCapacity;
+  }
+}
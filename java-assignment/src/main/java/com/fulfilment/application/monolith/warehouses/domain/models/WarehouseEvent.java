@@ -0,0 +1,32 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Signals that the warehouse with the given business unit code was created, changed or removed.
+ * Fired within the writing transaction, so observers should react once it ends: the warehouse cache
+ * uses {@code TransactionPhase.AFTER_COMPLETION}, which also drops entries loaded while a change
+ * that was later rolled back was in progress.
+ */
+public class WarehouseEvent {
+
+  public enum Type {
+    CREATED,
+    UPDATED,
+    REMOVED
+  }
+
+  private final String businessUnitCode;
+  private final Type type;
+
+  public WarehouseEvent(String businessUnitCode, Type type) {
+    this.businessUnitCode = businessUnitCode;
+    this.type = type;
+  }
+
+  public String getBusinessUnitCode() {
+    return businessUnitCode;
+  }
+
+  public Type getType() {
+    return type;
+  }
+}
@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.time.LocalDateTime;
+
+/** Criteria for listing active warehouses; a null criterion matches every warehouse. */
+public class WarehouseFilter {
+  public String location;
+
+  // capacity minus stock, a warehouse without stock counting as empty
+  public Integer minFreeCapacity;
+
+  public Integer minStock;
+
+  public Integer maxStock;
+
+  // list the warehouses active at this instant instead of the current ones
+  public LocalDateTime asOf;
+}
@@ -0,0 +1,43 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Outcome of a bulk warehouse import. */
+public class WarehouseImportReport {
+
+  // at most this many row errors are listed; failedRows keeps counting past it
+  public static final int MAX_REPORTED_ERRORS = 1000;
+
+  public long totalRows;
+
+  public long importedRows;
+
+  public long failedRows;
+
+  // number of chunks written, each in a transaction of its own
+  public int chunks;
+
+  public List<RowError> errors = new ArrayList<>();
+
+  public void rowFailed(long line, String businessUnitCode, String message) {
+    failedRows++;
+    if (errors.size() < MAX_REPORTED_ERRORS) {
+      errors.add(new RowError(line, businessUnitCode, message));
+    }
+  }
+
+  public static class RowError {
+    public long line;
+
+    public String businessUnitCode;
+
+    public String message;
+
+    public RowError(long line, String businessUnitCode, String message) {
+      this.line = line;
+      this.businessUnitCode = businessUnitCode;
+      this.message = message;
+    }
+  }
+}
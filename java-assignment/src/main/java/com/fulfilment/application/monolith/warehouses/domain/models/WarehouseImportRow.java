@@ -0,0 +1,27 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/** One row of a bulk warehouse import, either parsed into a warehouse or carrying a parse error. */
+public class WarehouseImportRow {
+
+  // line number of the row in the submitted file, starting at 1
+  public long line;
+
+  public Warehouse warehouse;
+
+  // why the row could not be parsed, null if it was
+  public String error;
+
+  private WarehouseImportRow(long line, Warehouse warehouse, String error) {
+    this.line = line;
+    this.warehouse = warehouse;
+    this.error = error;
+  }
+
+  public static WarehouseImportRow parsed(long line, Warehouse warehouse) {
+    return new WarehouseImportRow(line, warehouse, null);
+  }
+
+  public static WarehouseImportRow invalid(long line, String error) {
+    return new WarehouseImportRow(line, null, error);
+  }
+}
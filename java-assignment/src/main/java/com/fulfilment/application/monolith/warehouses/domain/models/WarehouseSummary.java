@@ -0,0 +1,27 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * The listed columns of an active warehouse, read by a projection query rather than by loading
+ * the whole row.
+ */
+public class WarehouseSummary {
+  // position of the warehouse in the listing order, used as the page cursor
+  public Long id;
+
+  public String businessUnitCode;
+
+  public String location;
+
+  public Integer capacity;
+
+  public Integer stock;
+
+  public WarehouseSummary(
+      Long id, String businessUnitCode, String location, Integer capacity, Integer stock) {
+    this.id = id;
+    this.businessUnitCode = businessUnitCode;
+    this.location = location;
+    this.capacity = capacity;
+    this.stock = stock;
+  }
+}
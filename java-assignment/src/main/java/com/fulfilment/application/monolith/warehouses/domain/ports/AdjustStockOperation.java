@@ -0,0 +1,11 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+public interface AdjustStockOperation {
+  /**
+   * Adds {@code delta} to the stock of the active warehouse with the given code, or takes it away
+   * when negative.
+   *
+   * @return the new stock
+   */
+  int adjust(String buCode, int delta);
+}
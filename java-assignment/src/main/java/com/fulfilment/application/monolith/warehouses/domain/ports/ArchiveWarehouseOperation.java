@@ -3,5 +3,10 @@ package com.fulfilment.application.monolith.warehouses.domain.ports;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 
 public interface ArchiveWarehouseOperation {
-  void archive(Warehouse warehouse);
+  /**
+   * Archives the active warehouse and removes its fulfillment assignments.
+   *
+   * @return number of fulfillment assignments removed
+   */
+  long archive(Warehouse warehouse);
 }
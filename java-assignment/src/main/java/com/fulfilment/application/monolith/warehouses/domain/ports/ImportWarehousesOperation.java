@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportReport;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportRow;
+import java.util.Iterator;
+
+public interface ImportWarehousesOperation {
+  WarehouseImportReport importWarehouses(Iterator<WarehouseImportRow> rows);
+}
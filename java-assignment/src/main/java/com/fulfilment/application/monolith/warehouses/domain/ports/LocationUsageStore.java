@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+
+/**
+ * Read side of the per-location usage ledger. The ledger is maintained by the {@link
+ * WarehouseStore} in the same transaction as every warehouse change, so it always matches the
+ * active warehouses visible to that transaction.
+ */
+public interface LocationUsageStore {
+
+  /** Returns the usage of a location, all zeros if it has no active warehouses. */
+  LocationUsage getUsage(String location);
+
+  /**
+   * Returns the usage of a location like {@link #getUsage} and locks it until the current
+   * transaction ends, so concurrent warehouse changes at the same location run one after another.
+   * Changes at other locations are not blocked.
+   */
+  LocationUsage lockUsage(String location);
+}
@@ -0,0 +1,23 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseFilter;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSummary;
+import io.smallrye.mutiny.Uni;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of the read side of {@link WarehouseStore}, for adapters running on the
+ * event loop. Writes keep going through {@link WarehouseStore} and the warehouse use cases.
+ */
+public interface ReactiveWarehouseStore {
+
+  /** Emits the active warehouse with the given code, or {@code null} if there is none. */
+  Uni<Warehouse> findByBusinessUnitCode(String buCode);
+
+  /** See {@link WarehouseStore#findActivePage}. */
+  Uni<List<WarehouseSummary>> findActivePage(WarehouseFilter filter, Long afterId, int maxResults);
+
+  /** See {@link WarehouseStore#findHistory}. */
+  Uni<List<Warehouse>> findHistory(String buCode);
+}
@@ -3,5 +3,10 @@ package com.fulfilment.application.monolith.warehouses.domain.ports;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 
 public interface ReplaceWarehouseOperation {
-  void replace(Warehouse warehouse);
+  /**
+   * Archives the active warehouse and creates its replacement under the same business unit code.
+   *
+   * @return number of fulfillment assignments carried over to the replacement
+   */
+  long replace(Warehouse warehouse);
 }
@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import java.util.concurrent.CompletionStage;
+
+public interface StockMovementJournal {
+  /**
+   * Checks the movement against the stock and capacity of the active warehouse with the given code
+   * and journals it, leaving the warehouse itself to be updated later.
+   *
+   * @return a stage that completes with the stock after the movement once it is journaled, or
+   *     fails with a {@code WarehouseValidationException} when the movement is refused. Cancelling
+   *     its {@code CompletableFuture} withdraws the movement unless the journal has already taken
+   *     it, in which case {@code cancel} returns {@code false} and the stage completes as usual.
+   */
+  CompletionStage<Integer> append(String buCode, int delta);
+}
@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+/**
+ * Fulfillment assignments that depend on a warehouse, addressed by business unit code. Every
+ * operation is a single set-based statement regardless of how many assignments are affected.
+ */
+public interface WarehouseAssignmentStore {
+
+  long countByWarehouse(String buCode);
+
+  long removeByWarehouse(String buCode);
+}
@@ -1,19 +1,73 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseConflictException;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseFilter;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSummary;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public interface WarehouseStore {
 
   List<Warehouse> getAll();
 
+  /**
+   * Creates the warehouse.
+   *
+   * @throws WarehouseConflictException if an active warehouse with the same code exists, e.g. one
+   *     created by a concurrent transaction after the caller checked for it
+   */
   void create(Warehouse warehouse);
 
+  /**
+   * Creates warehouses in a transaction of its own, so each call commits or fails as a whole
+   * independently of the caller. The usage of every location the given warehouses are at is locked
+   * first, in location order, and passed to {@code admit}; only the warehouses it returns are
+   * created, so its checks hold until the transaction commits.
+   *
+   * @return the warehouses created
+   */
+  List<Warehouse> createAll(
+      List<Warehouse> warehouses, Function<Map<String, LocationUsage>, List<Warehouse>> admit);
+
   void update(Warehouse warehouse);
 
+  /**
+   * Loads the active warehouse with the given code, locking its row for the rest of the
+   * transaction, lets {@code change} modify it and writes the result back. The row is read and
+   * locked once; exceptions thrown by {@code change} leave it unmodified.
+   *
+   * @return the warehouse as changed, or {@code null} if there is no active warehouse with that code
+   */
+  Warehouse modifyActive(String buCode, Consumer<Warehouse> change);
+
+  /**
+   * Adds {@code delta} to the stock of the active warehouse with the given code in a single
+   * conditional update, which only applies when the stock stays between 0 and the capacity. Unlike
+   * {@link #modifyActive} it does not read the row first, so concurrent movements do not wait on
+   * each other's read.
+   *
+   * @return the new stock, or {@code null} if there is no active warehouse with that code or the
+   *     movement would take its stock out of range
+   */
+  Integer adjustStock(String buCode, int delta);
+
   void remove(Warehouse warehouse);
 
   Warehouse findByBusinessUnitCode(String buCode);
 
-  List<Warehouse> findActiveByLocation(String location);
+  List<Warehouse> findActiveByBusinessUnitCodes(Collection<String> buCodes);
+
+  /**
+   * Lists warehouses matching {@code filter} that are active now, or were at {@code filter.asOf},
+   * in id order, starting after {@code afterId} ({@code null} for the first page).
+   */
+  List<WarehouseSummary> findActivePage(WarehouseFilter filter, Long afterId, int maxResults);
+
+  /** Returns every warehouse that ever had the given code, archived ones included, oldest first. */
+  List<Warehouse> findHistory(String buCode);
 }
@@ -0,0 +1,48 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.AdjustStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+@UnlessBuildProperty(
+    name = "warehouse.stock.mode",
+    stringValue = "write-behind",
+    enableIfMissing = true)
+public class AdjustStockUseCase implements AdjustStockOperation {
+
+  private final WarehouseStore warehouseStore;
+
+  public AdjustStockUseCase(WarehouseStore warehouseStore) {
+    this.warehouseStore = warehouseStore;
+  }
+
+  @Override
+  public int adjust(String buCode, int delta) {
+    Integer stock = warehouseStore.adjustStock(buCode, delta);
+    if (stock != null) {
+      return stock;
+    }
+
+    // the update matched nothing; only now look up why, off the path of every valid movement
+    Warehouse warehouse = warehouseStore.findByBusinessUnitCode(buCode);
+    if (warehouse == null) {
+      throw new WarehouseNotFoundException(
+          "No active warehouse found with business unit code '" + buCode + "'.");
+    }
+    throw new WarehouseValidationException(
+        "Stock movement of "
+            + delta
+            + " would take the stock ("
+            + warehouse.stock
+            + ") of warehouse '"
+            + buCode
+            + "' outside 0 to its capacity ("
+            + warehouse.capacity
+            + ").");
+  }
+}
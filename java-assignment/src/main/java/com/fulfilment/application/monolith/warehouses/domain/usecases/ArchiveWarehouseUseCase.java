@@ -3,6 +3,7 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseAssignmentStore;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.time.LocalDateTime;
@@ -14,14 +15,19 @@ public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
   private static final Logger LOGGER = Logger.getLogger(ArchiveWarehouseUseCase.class.getName());
 
   private final WarehouseStore warehouseStore;
+  private final WarehouseAssignmentStore assignmentStore;
 
-  public ArchiveWarehouseUseCase(WarehouseStore warehouseStore) {
+  public ArchiveWarehouseUseCase(
+      WarehouseStore warehouseStore, WarehouseAssignmentStore assignmentStore) {
     this.warehouseStore = warehouseStore;
+    this.assignmentStore = assignmentStore;
   }
 
   @Override
-  public void archive(Warehouse warehouse) {
-    Warehouse existing = warehouseStore.findByBusinessUnitCode(warehouse.businessUnitCode);
+  public long archive(Warehouse warehouse) {
+    LocalDateTime archivedAt = LocalDateTime.now();
+    Warehouse existing =
+        warehouseStore.modifyActive(warehouse.businessUnitCode, w -> w.archivedAt = archivedAt);
     if (existing == null) {
       throw new WarehouseValidationException(
           "No active warehouse found with business unit code '"
@@ -29,10 +35,15 @@ public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
               + "'.");
     }
 
-    existing.archivedAt = LocalDateTime.now();
+    LOGGER.infof("Archived warehouse with BU code '%s'", existing.businessUnitCode);
 
-    LOGGER.infof("Archiving warehouse with BU code '%s'", existing.businessUnitCode);
+    // An archived warehouse no longer fulfills anything; drop its assignments in one statement
+    long removed = assignmentStore.removeByWarehouse(existing.businessUnitCode);
 
-    warehouseStore.update(existing);
+    LOGGER.infof(
+        "Removed %d fulfillment assignments of archived warehouse '%s'",
+        removed, existing.businessUnitCode);
+
+    return removed;
   }
 }
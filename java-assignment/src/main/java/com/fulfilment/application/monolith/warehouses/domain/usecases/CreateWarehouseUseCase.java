@@ -2,13 +2,14 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationUsageStore;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.time.LocalDateTime;
-import java.util.List;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
@@ -18,10 +19,15 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
   private final LocationResolver locationResolver;
+  private final LocationUsageStore locationUsageStore;
 
-  public CreateWarehouseUseCase(WarehouseStore warehouseStore, LocationResolver locationResolver) {
+  public CreateWarehouseUseCase(
+      WarehouseStore warehouseStore,
+      LocationResolver locationResolver,
+      LocationUsageStore locationUsageStore) {
     this.warehouseStore = warehouseStore;
     this.locationResolver = locationResolver;
+    this.locationUsageStore = locationUsageStore;
   }
 
   @Override
@@ -42,10 +48,10 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
           "Location '" + warehouse.location + "' is not a valid location.");
     }
 
-    // 3. Warehouse creation feasibility - check max warehouses at location
-    List<Warehouse> warehousesAtLocation =
-        warehouseStore.findActiveByLocation(warehouse.location);
-    if (warehousesAtLocation.size() >= location.maxNumberOfWarehouses) {
+    // 3. Warehouse creation feasibility - check max warehouses at location. Locking the usage
+    // keeps a concurrent create or replace at this location from passing the same checks
+    LocationUsage usage = locationUsageStore.lockUsage(warehouse.location);
+    if (usage.activeWarehouses >= location.maxNumberOfWarehouses) {
       throw new WarehouseValidationException(
           "Maximum number of warehouses ("
               + location.maxNumberOfWarehouses
@@ -55,8 +61,7 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
     }
 
     // 4. Capacity validation - must not exceed location max capacity
-    int currentTotalCapacity =
-        warehousesAtLocation.stream().mapToInt(w -> w.capacity).sum();
+    int currentTotalCapacity = usage.usedCapacity;
     if (currentTotalCapacity + warehouse.capacity > location.maxCapacity) {
       throw new WarehouseValidationException(
           "Warehouse capacity ("
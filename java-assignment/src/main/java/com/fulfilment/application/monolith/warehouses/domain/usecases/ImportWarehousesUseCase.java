@@ -0,0 +1,252 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportReport;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportRow;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ImportWarehousesOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jboss.logging.Logger;
+
+/**
+ * Creates warehouses from a stream of import rows, applying the same rules as {@link
+ * CreateWarehouseUseCase}.
+ *
+ * <p>Rows are consumed in chunks. Each chunk costs one query for the business unit codes it
+ * contains and one write transaction, in which the usage of the chunk's locations is locked once
+ * and the location limits are checked against it, so the per-row queries of a single create are
+ * not repeated and concurrent creates cannot push a location over its limits. A chunk that the
+ * store rejects is reported row by row and does not affect the chunks before or after it.
+ */
+@ApplicationScoped
+public class ImportWarehousesUseCase implements ImportWarehousesOperation {
+
+  private static final Logger LOGGER = Logger.getLogger(ImportWarehousesUseCase.class.getName());
+
+  static final int DEFAULT_CHUNK_SIZE = 500;
+
+  private final WarehouseStore warehouseStore;
+  private final LocationResolver locationResolver;
+  private final int chunkSize;
+
+  @Inject
+  public ImportWarehousesUseCase(WarehouseStore warehouseStore, LocationResolver locationResolver) {
+    this(warehouseStore, locationResolver, DEFAULT_CHUNK_SIZE);
+  }
+
+  ImportWarehousesUseCase(
+      WarehouseStore warehouseStore, LocationResolver locationResolver, int chunkSize) {
+    this.warehouseStore = warehouseStore;
+    this.locationResolver = locationResolver;
+    this.chunkSize = chunkSize;
+  }
+
+  @Override
+  public WarehouseImportReport importWarehouses(Iterator<WarehouseImportRow> rows) {
+    Run run = new Run();
+    List<WarehouseImportRow> chunk = new ArrayList<>(chunkSize);
+    while (rows.hasNext()) {
+      WarehouseImportRow row = rows.next();
+      run.report.totalRows++;
+      chunk.add(row);
+      if (chunk.size() == chunkSize) {
+        importChunk(run, chunk);
+        chunk.clear();
+      }
+    }
+    if (!chunk.isEmpty()) {
+      importChunk(run, chunk);
+    }
+
+    LOGGER.infof(
+        "Warehouse import finished: %d rows, %d imported, %d failed in %d chunks",
+        run.report.totalRows,
+        run.report.importedRows,
+        run.report.failedRows,
+        run.report.chunks);
+    return run.report;
+  }
+
+  private void importChunk(Run run, List<WarehouseImportRow> chunk) {
+    // rows that failed to parse stay in the chunk so the report lists errors in line order
+    List<String> chunkCodes =
+        chunk.stream()
+            .filter(r -> r.error == null)
+            .map(r -> r.warehouse.businessUnitCode)
+            .toList();
+    Set<String> existing = new HashSet<>();
+    warehouseStore
+        .findActiveByBusinessUnitCodes(chunkCodes)
+        .forEach(w -> existing.add(w.businessUnitCode));
+
+    Map<WarehouseImportRow, String> failures = new IdentityHashMap<>();
+    List<WarehouseImportRow> candidates = new ArrayList<>(chunk.size());
+    for (WarehouseImportRow row : chunk) {
+      if (row.error != null) {
+        failures.put(row, row.error);
+        continue;
+      }
+      Warehouse warehouse = row.warehouse;
+      try {
+        if (existing.contains(warehouse.businessUnitCode)
+            || run.codes.contains(warehouse.businessUnitCode)) {
+          throw new WarehouseValidationException(
+              "A warehouse with business unit code '"
+                  + warehouse.businessUnitCode
+                  + "' already exists.");
+        }
+        run.locationOf(warehouse.location);
+        if (warehouse.stock != null && warehouse.stock > warehouse.capacity) {
+          throw new WarehouseValidationException(
+              "Warehouse stock ("
+                  + warehouse.stock
+                  + ") cannot exceed warehouse capacity ("
+                  + warehouse.capacity
+                  + ").");
+        }
+      } catch (WarehouseValidationException e) {
+        failures.put(row, e.getMessage());
+        continue;
+      }
+      warehouse.createdAt = LocalDateTime.now();
+      run.codes.add(warehouse.businessUnitCode);
+      candidates.add(row);
+    }
+
+    if (!candidates.isEmpty()) {
+      // rows over a location limit, filled in by admit() under the usage locks
+      Map<WarehouseImportRow, String> overLimit = new IdentityHashMap<>();
+      try {
+        List<Warehouse> created =
+            warehouseStore.createAll(
+                candidates.stream().map(r -> r.warehouse).toList(),
+                usage -> admit(run, candidates, usage, overLimit));
+        run.report.importedRows += created.size();
+      } catch (RuntimeException e) {
+        LOGGER.warnf(e, "Warehouse import chunk of %d rows failed", candidates.size());
+        for (WarehouseImportRow row : candidates) {
+          failures.put(
+              row, "The chunk containing this row could not be stored: " + e.getMessage());
+        }
+      }
+      failures.putAll(overLimit);
+      for (WarehouseImportRow row : candidates) {
+        if (failures.containsKey(row)) {
+          run.codes.remove(row.warehouse.businessUnitCode);
+        }
+      }
+    }
+
+    for (WarehouseImportRow row : chunk) {
+      String error = failures.get(row);
+      if (error != null) {
+        String buCode = row.error == null ? row.warehouse.businessUnitCode : null;
+        run.report.rowFailed(row.line, buCode, error);
+      }
+    }
+    run.report.chunks++;
+    LOGGER.infof(
+        "Warehouse import progress: %d rows read, %d imported, %d failed",
+        run.report.totalRows, run.report.importedRows, run.report.failedRows);
+  }
+
+  /**
+   * Checks the candidates in line order against the locked usage of their locations and returns
+   * those that fit. The others are put in {@code overLimit} with the reason.
+   */
+  private static List<Warehouse> admit(
+      Run run,
+      List<WarehouseImportRow> candidates,
+      Map<String, LocationUsage> usage,
+      Map<WarehouseImportRow, String> overLimit) {
+    overLimit.clear();
+    Map<String, Tally> tallies = new HashMap<>();
+    List<Warehouse> admitted = new ArrayList<>(candidates.size());
+    for (WarehouseImportRow row : candidates) {
+      Warehouse warehouse = row.warehouse;
+      try {
+        tallies
+            .computeIfAbsent(
+                warehouse.location, l -> new Tally(run.locations.get(l), usage.get(l)))
+            .reserve(warehouse);
+        admitted.add(warehouse);
+      } catch (WarehouseValidationException e) {
+        overLimit.put(row, e.getMessage());
+      }
+    }
+    return admitted;
+  }
+
+  /** State carried from one chunk to the next. */
+  private class Run {
+    final WarehouseImportReport report = new WarehouseImportReport();
+    // business unit codes created by this import
+    final Set<String> codes = new HashSet<>();
+    final Map<String, Location> locations = new HashMap<>();
+
+    Location locationOf(String identifier) {
+      Location location = locations.get(identifier);
+      if (location == null) {
+        location = locationResolver.resolveByIdentifier(identifier);
+        if (location == null) {
+          throw new WarehouseValidationException(
+              "Location '" + identifier + "' is not a valid location.");
+        }
+        locations.put(identifier, location);
+      }
+      return location;
+    }
+  }
+
+  /** Usage of a location as locked by the store, plus the warehouses admitted so far. */
+  private static class Tally {
+    final Location location;
+    int warehouses;
+    int capacity;
+
+    Tally(Location location, LocationUsage usage) {
+      this.location = location;
+      this.warehouses = usage.activeWarehouses;
+      this.capacity = usage.usedCapacity;
+    }
+
+    void reserve(Warehouse warehouse) {
+      if (warehouses >= location.maxNumberOfWarehouses) {
+        throw new WarehouseValidationException(
+            "Maximum number of warehouses ("
+                + location.maxNumberOfWarehouses
+                + ") already reached at location '"
+                + warehouse.location
+                + "'.");
+      }
+      if (capacity + warehouse.capacity > location.maxCapacity) {
+        throw new WarehouseValidationException(
+            "Warehouse capacity ("
+                + warehouse.capacity
+                + ") would exceed the maximum capacity ("
+                + location.maxCapacity
+                + ") for location '"
+                + warehouse.location
+                + "'. Current used capacity: "
+                + capacity
+                + ".");
+      }
+      warehouses++;
+      capacity += warehouse.capacity;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseUnavailableException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.ports.AdjustStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockMovementJournal;
+import io.quarkus.arc.properties.IfBuildProperty;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Adjusts the stock through the {@link StockMovementJournal} instead of updating the warehouse
+ * row, which spreads the movements on a hot warehouse over a batch each. Only built with {@code
+ * warehouse.stock.mode=write-behind}; {@link AdjustStockUseCase} is used otherwise.
+ *
+ * <p>The caller waits at most {@code warehouse.stock.append-timeout} for the journal. A movement
+ * still queued by then is withdrawn and reported as a {@link WarehouseUnavailableException}; one
+ * the journal has already taken is waited for once more, since its batch is being written.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "warehouse.stock.mode", stringValue = "write-behind")
+public class JournaledAdjustStockUseCase implements AdjustStockOperation {
+
+  private final StockMovementJournal journal;
+  private final Duration timeout;
+
+  @Inject
+  public JournaledAdjustStockUseCase(
+      StockMovementJournal journal,
+      @ConfigProperty(name = "warehouse.stock.append-timeout", defaultValue = "5S")
+          Duration timeout) {
+    this.journal = journal;
+    this.timeout = timeout;
+  }
+
+  @Override
+  public int adjust(String buCode, int delta) {
+    CompletableFuture<Integer> result = journal.append(buCode, delta).toCompletableFuture();
+    try {
+      try {
+        return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        if (result.cancel(false)) {
+          throw new WarehouseUnavailableException(
+              "The stock movement was not journaled within "
+                  + timeout.toMillis()
+                  + " ms and has not been applied.");
+        }
+        return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+      }
+    } catch (TimeoutException e) {
+      throw new WarehouseUnavailableException(
+          "The stock movement is still being journaled; check the stock before retrying.");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof WarehouseValidationException refusal) {
+        throw refusal;
+      }
+      throw new IllegalStateException("Failed to journal the stock movement.", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new WarehouseUnavailableException("Interrupted while journaling the stock movement.");
+    }
+  }
+}
@@ -2,13 +2,17 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationUsageStore;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseAssignmentStore;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Arrays;
+import java.util.TreeSet;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
@@ -18,62 +22,48 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
   private final LocationResolver locationResolver;
+  private final LocationUsageStore locationUsageStore;
+  private final WarehouseAssignmentStore assignmentStore;
 
   public ReplaceWarehouseUseCase(
-      WarehouseStore warehouseStore, LocationResolver locationResolver) {
+      WarehouseStore warehouseStore,
+      LocationResolver locationResolver,
+      LocationUsageStore locationUsageStore,
+      WarehouseAssignmentStore assignmentStore) {
     this.warehouseStore = warehouseStore;
     this.locationResolver = locationResolver;
+    this.locationUsageStore = locationUsageStore;
+    this.assignmentStore = assignmentStore;
   }
 
   @Override
-  public void replace(Warehouse newWarehouse) {
-    // 1. Find existing active warehouse by BU code
+  public long replace(Warehouse newWarehouse) {
+    // 1.-5. Lock the active warehouse with this BU code, validate the replacement against it
+    // and archive it in the same step
+    LocalDateTime archivedAt = LocalDateTime.now();
+    Location[] resolved = new Location[1];
     Warehouse existing =
-        warehouseStore.findByBusinessUnitCode(newWarehouse.businessUnitCode);
+        warehouseStore.modifyActive(
+            newWarehouse.businessUnitCode,
+            current -> {
+              resolved[0] = validateReplacement(current, newWarehouse);
+              lockUsages(current.location, newWarehouse.location);
+              current.archivedAt = archivedAt;
+            });
     if (existing == null) {
       throw new WarehouseValidationException(
           "No active warehouse found with business unit code '"
               + newWarehouse.businessUnitCode
               + "' to replace.");
     }
-
-    // 2. Capacity accommodation - new capacity must hold the old warehouse's stock
-    if (newWarehouse.capacity < existing.stock) {
-      throw new WarehouseValidationException(
-          "New warehouse capacity ("
-              + newWarehouse.capacity
-              + ") cannot accommodate the stock ("
-              + existing.stock
-              + ") from the warehouse being replaced.");
-    }
-
-    // 3. Stock matching - new warehouse stock must equal old warehouse stock
-    if (!newWarehouse.stock.equals(existing.stock)) {
-      throw new WarehouseValidationException(
-          "New warehouse stock ("
-              + newWarehouse.stock
-              + ") must match the stock ("
-              + existing.stock
-              + ") of the warehouse being replaced.");
-    }
-
-    // 4. Validate the new warehouse's location
-    Location newLocation = locationResolver.resolveByIdentifier(newWarehouse.location);
-    if (newLocation == null) {
-      throw new WarehouseValidationException(
-          "Location '" + newWarehouse.location + "' is not a valid location.");
-    }
-
-    // 5. Archive the existing warehouse
-    existing.archivedAt = LocalDateTime.now();
-    warehouseStore.update(existing);
+    Location newLocation = resolved[0];
 
     LOGGER.infof("Archived warehouse with BU code '%s' for replacement", existing.businessUnitCode);
 
-    // 6. Check warehouse count feasibility at new location (after archiving)
-    List<Warehouse> warehousesAtNewLocation =
-        warehouseStore.findActiveByLocation(newWarehouse.location);
-    if (warehousesAtNewLocation.size() >= newLocation.maxNumberOfWarehouses) {
+    // 6. Check warehouse count feasibility at new location (after archiving); its usage is
+    // already locked, this reads it again with the archived warehouse released
+    LocationUsage usage = locationUsageStore.lockUsage(newWarehouse.location);
+    if (usage.activeWarehouses >= newLocation.maxNumberOfWarehouses) {
       throw new WarehouseValidationException(
           "Maximum number of warehouses ("
               + newLocation.maxNumberOfWarehouses
@@ -83,9 +73,7 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
     }
 
     // 7. Check capacity at new location (after archiving)
-    int currentTotalCapacity =
-        warehousesAtNewLocation.stream().mapToInt(w -> w.capacity).sum();
-    if (currentTotalCapacity + newWarehouse.capacity > newLocation.maxCapacity) {
+    if (usage.usedCapacity + newWarehouse.capacity > newLocation.maxCapacity) {
       throw new WarehouseValidationException(
           "Warehouse capacity ("
               + newWarehouse.capacity
@@ -100,8 +88,61 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
     newWarehouse.createdAt = LocalDateTime.now();
     warehouseStore.create(newWarehouse);
 
+    // 9. Assignments reference the business unit code, which the replacement keeps,
+    // so they carry over without being rewritten
+    long carriedOver = assignmentStore.countByWarehouse(newWarehouse.businessUnitCode);
+
     LOGGER.infof(
-        "Created replacement warehouse with BU code '%s' at location '%s'",
-        newWarehouse.businessUnitCode, newWarehouse.location);
+        "Created replacement warehouse with BU code '%s' at location '%s', taking over %d"
+            + " fulfillment assignments",
+        newWarehouse.businessUnitCode, newWarehouse.location, carriedOver);
+
+    return carriedOver;
+  }
+
+  /**
+   * Locks the usage of the old and the new location in location order before the old location's
+   * usage is released, so two replacements moving warehouses in opposite directions between the
+   * same locations cannot deadlock on them.
+   */
+  private void lockUsages(String oldLocation, String newLocation) {
+    for (String location : new TreeSet<>(Arrays.asList(oldLocation, newLocation))) {
+      locationUsageStore.lockUsage(location);
+    }
+  }
+
+  /**
+   * Checks the replacement against the warehouse it replaces and resolves its location.
+   *
+   * @return the location of the replacement
+   */
+  private Location validateReplacement(Warehouse existing, Warehouse newWarehouse) {
+    // 2. Capacity accommodation - new capacity must hold the old warehouse's stock
+    if (newWarehouse.capacity < existing.stock) {
+      throw new WarehouseValidationException(
+          "New warehouse capacity ("
+              + newWarehouse.capacity
+              + ") cannot accommodate the stock ("
+              + existing.stock
+              + ") from the warehouse being replaced.");
+    }
+
+    // 3. Stock matching - new warehouse stock must equal old warehouse stock
+    if (!newWarehouse.stock.equals(existing.stock)) {
+      throw new WarehouseValidationException(
+          "New warehouse stock ("
+              + newWarehouse.stock
+              + ") must match the stock ("
+              + existing.stock
+              + ") of the warehouse being replaced.");
+    }
+
+    // 4. Validate the new warehouse's location
+    Location newLocation = locationResolver.resolveByIdentifier(newWarehouse.location);
+    if (newLocation == null) {
+      throw new WarehouseValidationException(
+          "Location '" + newWarehouse.location + "' is not a valid location.");
+    }
+    return newLocation;
   }
 }
@@ -0,0 +1,8 @@
+-- H2 has no partial indexes. A generated column that only holds the code of active warehouses
+-- gives the same uniqueness guarantee, since unique indexes accept any number of NULLs.
+ALTER TABLE warehouse ADD COLUMN IF NOT EXISTS activeBusinessUnitCode varchar(255)
+    GENERATED ALWAYS AS (CASE WHEN archivedAt IS NULL THEN businessUnitCode END);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_warehouse_active_business_unit_code
+    ON warehouse (activeBusinessUnitCode);
+CREATE INDEX IF NOT EXISTS idx_warehouse_business_unit_code
+    ON warehouse (businessUnitCode, archivedAt);
@@ -0,0 +1,75 @@
+-- Schema as previously generated by Hibernate. Every statement is guarded with IF NOT EXISTS, so
+-- on a database created by the old drop-and-create setup this migration only adds what is missing.
+
+CREATE SEQUENCE IF NOT EXISTS Store_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS Product_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS warehouse_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS fulfillment_assignment_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS fulfillment_assignment_change_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS Store (
+    id bigint NOT NULL,
+    name varchar(40) UNIQUE,
+    quantityProductsInStock integer NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS Product (
+    id bigint NOT NULL,
+    name varchar(40) UNIQUE,
+    description varchar(255),
+    price numeric(10, 2),
+    stock integer NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS warehouse (
+    id bigint NOT NULL,
+    businessUnitCode varchar(255),
+    location varchar(255),
+    capacity integer,
+    stock integer,
+    createdAt timestamp(6),
+    archivedAt timestamp(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS location_usage (
+    location varchar(255) NOT NULL,
+    activeWarehouses integer NOT NULL,
+    usedCapacity integer NOT NULL,
+    PRIMARY KEY (location)
+);
+
+CREATE TABLE IF NOT EXISTS fulfillment_assignment (
+    id bigint NOT NULL,
+    productId bigint NOT NULL,
+    warehouseBusinessUnitCode varchar(255) NOT NULL,
+    storeId bigint NOT NULL,
+    createdAt timestamp(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_fulfillment_product_warehouse_store
+        UNIQUE (productId, warehouseBusinessUnitCode, storeId)
+);
+
+CREATE INDEX IF NOT EXISTS idx_fulfillment_store_warehouse
+    ON fulfillment_assignment (storeId, warehouseBusinessUnitCode, productId);
+CREATE INDEX IF NOT EXISTS idx_fulfillment_warehouse_product
+    ON fulfillment_assignment (warehouseBusinessUnitCode, productId, storeId);
+CREATE INDEX IF NOT EXISTS idx_fulfillment_product_store
+    ON fulfillment_assignment (productId, storeId, warehouseBusinessUnitCode);
+CREATE INDEX IF NOT EXISTS idx_fulfillment_store_id ON fulfillment_assignment (storeId, id);
+CREATE INDEX IF NOT EXISTS idx_fulfillment_warehouse_id
+    ON fulfillment_assignment (warehouseBusinessUnitCode, id);
+CREATE INDEX IF NOT EXISTS idx_fulfillment_product_id ON fulfillment_assignment (productId, id);
+
+CREATE TABLE IF NOT EXISTS fulfillment_assignment_change (
+    id bigint NOT NULL,
+    type varchar(32) NOT NULL,
+    assignmentId bigint,
+    productId bigint,
+    warehouseBusinessUnitCode varchar(255) NOT NULL,
+    storeId bigint,
+    occurredAt timestamp(6),
+    PRIMARY KEY (id)
+);
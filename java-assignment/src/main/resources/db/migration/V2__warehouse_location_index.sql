@@ -0,0 +1,2 @@
+-- Backs the location filter of the active warehouse listing (WarehouseRepository.findActivePage).
+CREATE INDEX IF NOT EXISTS idx_warehouse_location_archived ON warehouse (location, archivedAt);
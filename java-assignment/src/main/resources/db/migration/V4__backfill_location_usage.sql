@@ -0,0 +1,7 @@
+-- Databases created before the location usage ledger existed start with an empty ledger.
+INSERT INTO location_usage (location, activeWarehouses, usedCapacity)
+SELECT location, COUNT(*), COALESCE(SUM(capacity), 0)
+FROM warehouse
+WHERE archivedAt IS NULL
+  AND NOT EXISTS (SELECT 1 FROM location_usage)
+GROUP BY location;
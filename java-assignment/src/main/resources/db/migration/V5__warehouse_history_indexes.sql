@@ -0,0 +1,6 @@
+-- Backs WarehouseRepository.findHistory: every version of a business unit code in creation order.
+CREATE INDEX IF NOT EXISTS idx_warehouse_code_created ON warehouse (businessUnitCode, createdAt);
+
+-- Backs listing with asOf: the range on createdAt narrows the rows, archivedAt is then checked
+-- from the index without reading the table.
+CREATE INDEX IF NOT EXISTS idx_warehouse_created_archived ON warehouse (createdAt, archivedAt);
@@ -0,0 +1,12 @@
+-- Journal of the stock movements accepted in write-behind mode (warehouse.stock.mode) and not yet
+-- added to warehouse.stock. Rows are deleted once their net change is applied; the rows still here
+-- at startup are the movements of a crashed instance and are applied then.
+CREATE SEQUENCE IF NOT EXISTS stock_movement_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS stock_movement (
+    id bigint NOT NULL,
+    businessUnitCode varchar(255) NOT NULL,
+    delta integer NOT NULL,
+    createdAt timestamp(6) NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,19 @@
+-- Sequence numbers of the fulfillment assignment change feed. They are taken from this single row,
+-- which the writing transaction keeps locked until it ends, so they follow commit order; the pooled
+-- sequence used before handed them out in insertion order. prunedThrough is the highest number the
+-- retention cleanup has deleted.
+CREATE TABLE IF NOT EXISTS fulfillment_change_counter (
+    id integer NOT NULL,
+    lastSequence bigint NOT NULL,
+    prunedThrough bigint NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO fulfillment_change_counter (id, lastSequence, prunedThrough)
+SELECT 1, COALESCE(MAX(id), 0), 0 FROM fulfillment_assignment_change;
+
+DROP SEQUENCE IF EXISTS fulfillment_assignment_change_SEQ;
+
+-- Backs the retention cleanup.
+CREATE INDEX IF NOT EXISTS idx_fulfillment_change_occurred
+    ON fulfillment_assignment_change (occurredAt);
@@ -0,0 +1,2 @@
+-- Backs the per-warehouse sums and deletes of the stock movement journal (WriteBehindStockJournal).
+CREATE INDEX IF NOT EXISTS idx_stock_movement_code ON stock_movement (businessUnitCode);
@@ -0,0 +1,8 @@
+-- At most one active warehouse per business unit code, while archived history may repeat codes.
+-- The partial index also serves every "businessUnitCode = ? and archivedAt is null" lookup
+-- without growing with the archived rows.
+--
+-- Fails if the database already holds two active warehouses with the same code; archive the
+-- surplus rows before migrating.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_warehouse_active_business_unit_code
+    ON warehouse (businessUnitCode) WHERE archivedAt IS NULL;
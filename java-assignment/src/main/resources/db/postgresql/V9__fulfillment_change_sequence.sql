@@ -0,0 +1,8 @@
+-- Change feed sequence numbers come from a pooled sequence again instead of the locked counter row,
+-- which made every assignment change wait for the one before it to commit. The sequence continues
+-- above the last number the counter handed out; the counter row keeps only prunedThrough.
+CREATE SEQUENCE IF NOT EXISTS fulfillment_assignment_change_SEQ INCREMENT BY 50;
+SELECT setval('fulfillment_assignment_change_SEQ',
+    (SELECT lastSequence + 50 FROM fulfillment_change_counter WHERE id = 1));
+
+ALTER TABLE fulfillment_change_counter DROP COLUMN IF EXISTS lastSequence;
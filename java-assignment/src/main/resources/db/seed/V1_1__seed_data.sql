@@ -15,3 +15,7 @@ VALUES (2, 'MWH.012', 'AMSTERDAM-001', 50, 5, '2023-07-01', null);
 INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt)
 VALUES (3, 'MWH.023', 'TILBURG-001', 30, 27, '2021-02-01', null);
 ALTER SEQUENCE warehouse_seq RESTART WITH 4;
+
+INSERT INTO location_usage(location, activeWarehouses, usedCapacity) VALUES ('ZWOLLE-001', 1, 100);
+INSERT INTO location_usage(location, activeWarehouses, usedCapacity) VALUES ('AMSTERDAM-001', 1, 50);
+INSERT INTO location_usage(location, activeWarehouses, usedCapacity) VALUES ('TILBURG-001', 1, 30);
@@ -0,0 +1,108 @@
+package com.fulfilment.application.monolith.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Sends {@code benchmark.requests} GETs, {@code benchmark.concurrency} of them in flight at once,
+ * round robin to the listings of the {@code @RunOnVirtualThread} resources, and logs the throughput
+ * and the latency percentiles. {@link PlatformThreadLoadTest} and {@link VirtualThreadLoadTest} run
+ * it on the worker thread pool and on virtual threads for comparison when {@code benchmark.load} is
+ * set to {@code true}.
+ */
+abstract class EndpointLoadTest {
+
+  private static final Logger LOGGER = Logger.getLogger(EndpointLoadTest.class.getName());
+
+  private static final int REQUESTS = Integer.getInteger("benchmark.requests", 2_000);
+  private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 64);
+  private static final List<String> PATHS = List.of("store", "product", "warehouse", "fulfillment");
+
+  @TestHTTPResource("/")
+  URI baseUri;
+
+  abstract String mode();
+
+  @Test
+  public void testListingsUnderLoad() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      HttpClient client = HttpClient.newBuilder().executor(executor).build();
+      // warm up before measuring
+      run(client, REQUESTS / 10);
+      long[] latencies = new long[REQUESTS];
+      long elapsedNanos = run(client, latencies);
+      Arrays.sort(latencies);
+
+      LOGGER.infof(
+          "Listings on %s threads, %d requests with %d in flight: %.1f requests/s,"
+              + " p50 %.1f ms, p99 %.1f ms, max %.1f ms",
+          mode(),
+          REQUESTS,
+          CONCURRENCY,
+          REQUESTS / (elapsedNanos / 1_000_000_000.0),
+          millis(percentile(latencies, 0.50)),
+          millis(percentile(latencies, 0.99)),
+          millis(latencies[latencies.length - 1]));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private long run(HttpClient client, int requests) throws Exception {
+    return run(client, new long[requests]);
+  }
+
+  /** Sends one request per entry of {@code latencies} and records how long each took. */
+  private long run(HttpClient client, long[] latencies) throws Exception {
+    Semaphore inFlight = new Semaphore(CONCURRENCY);
+    AtomicInteger failures = new AtomicInteger();
+    CompletableFuture<?>[] responses = new CompletableFuture<?>[latencies.length];
+    long startedAt = System.nanoTime();
+    for (int i = 0; i < latencies.length; i++) {
+      int request = i;
+      inFlight.acquire();
+      long sentAt = System.nanoTime();
+      responses[i] =
+          client
+              .sendAsync(
+                  HttpRequest.newBuilder(baseUri.resolve(PATHS.get(i % PATHS.size()))).build(),
+                  HttpResponse.BodyHandlers.discarding())
+              .whenComplete(
+                  (response, failure) -> {
+                    latencies[request] = System.nanoTime() - sentAt;
+                    if (failure != null || response.statusCode() != 200) {
+                      failures.incrementAndGet();
+                    }
+                    inFlight.release();
+                  });
+    }
+    CompletableFuture.allOf(responses).exceptionally(failure -> null).get(5, TimeUnit.MINUTES);
+    long elapsedNanos = System.nanoTime() - startedAt;
+    assertEquals(0, failures.get());
+    return elapsedNanos;
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+}
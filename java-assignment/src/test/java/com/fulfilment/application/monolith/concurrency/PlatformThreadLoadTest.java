@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.concurrency;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/** Runs the listings on the worker thread pool, the default. */
+@QuarkusTest
+@EnabledIfSystemProperty(named = "benchmark.load", matches = "true")
+public class PlatformThreadLoadTest extends EndpointLoadTest {
+
+  @Override
+  String mode() {
+    return "platform";
+  }
+}
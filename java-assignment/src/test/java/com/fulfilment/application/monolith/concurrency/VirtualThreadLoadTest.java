@@ -0,0 +1,26 @@
+package com.fulfilment.application.monolith.concurrency;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import java.util.Map;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/** Runs the listings on virtual threads. */
+@QuarkusTest
+@TestProfile(VirtualThreadLoadTest.VirtualThreadsEnabled.class)
+@EnabledIfSystemProperty(named = "benchmark.load", matches = "true")
+public class VirtualThreadLoadTest extends EndpointLoadTest {
+
+  public static class VirtualThreadsEnabled implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of("quarkus.virtual-threads.enabled", "true");
+    }
+  }
+
+  @Override
+  String mode() {
+    return "virtual";
+  }
+}
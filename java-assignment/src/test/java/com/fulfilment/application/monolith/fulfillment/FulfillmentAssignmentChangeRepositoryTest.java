@@ -0,0 +1,193 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class FulfillmentAssignmentChangeRepositoryTest {
+
+  private static final int WRITERS = 8;
+  private static final int CHANGES_PER_WRITER = 40;
+
+  @Inject FulfillmentAssignmentChangeRepository repository;
+
+  @Test
+  public void testChangesAboveAnOpenTransactionAreHeldBack() throws Exception {
+    CountDownLatch firstWritten = new CountDownLatch(1);
+    CountDownLatch read = new CountDownLatch(1);
+
+    // the first transaction records its change and only commits after the read below
+    CompletableFuture<Void> first =
+        CompletableFuture.runAsync(
+            () ->
+                QuarkusTransaction.requiringNew()
+                    .run(
+                        () -> {
+                          repository.onAssignmentEvent(removed("MWH.CHANGE-1"));
+                          firstWritten.countDown();
+                          await(read);
+                        }));
+    assertTrue(firstWritten.await(10, TimeUnit.SECONDS));
+
+    // the second one does not wait for the first
+    QuarkusTransaction.requiringNew()
+        .run(() -> repository.onAssignmentEvent(removed("MWH.CHANGE-2")));
+
+    // committed, but numbered above a change that may still commit
+    List<FulfillmentAssignmentChange> before =
+        QuarkusTransaction.requiringNew().call(() -> repository.findSince(0, 10_000));
+    read.countDown();
+    first.get(10, TimeUnit.SECONDS);
+    assertFalse(contains(before, "MWH.CHANGE-2"));
+
+    List<FulfillmentAssignmentChange> after =
+        QuarkusTransaction.requiringNew().call(() -> repository.findSince(0, 10_000));
+    assertTrue(find(after, "MWH.CHANGE-1").id < find(after, "MWH.CHANGE-2").id);
+  }
+
+  @Test
+  public void testConcurrentReaderSeesIncreasingNumbersWithoutMissingAny() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> writers = new ArrayList<>();
+    for (int w = 0; w < WRITERS; w++) {
+      int writer = w;
+      writers.add(
+          executor.submit(
+              () -> {
+                start.await();
+                Random random = new Random(writer);
+                for (int i = 0; i < CHANGES_PER_WRITER; i++) {
+                  String code = "MWH.SEQ-" + writer + "-" + i;
+                  boolean rollBack = random.nextInt(5) == 0;
+                  try {
+                    QuarkusTransaction.requiringNew()
+                        .run(
+                            () -> {
+                              repository.onAssignmentEvent(removed(code));
+                              // commits in a different order than the numbers were taken
+                              sleep(random.nextInt(5));
+                              if (rollBack) {
+                                throw new IllegalStateException("rolled back");
+                              }
+                            });
+                  } catch (IllegalStateException e) {
+                    // leaves a gap in the numbers
+                  }
+                }
+                return null;
+              }));
+    }
+
+    long since = QuarkusTransaction.requiringNew().call(repository::committedThrough);
+    List<Long> seen = new ArrayList<>();
+    start.countDown();
+    while (true) {
+      // checked before reading, so the last page is read after every writer has finished
+      boolean written = writers.stream().allMatch(Future::isDone);
+      long from = since;
+      List<FulfillmentAssignmentChange> page =
+          QuarkusTransaction.requiringNew().call(() -> repository.findSince(from, 50));
+      for (FulfillmentAssignmentChange change : page) {
+        assertTrue(change.id > since, change.id + " after " + since);
+        since = change.id;
+        if (change.warehouseBusinessUnitCode.startsWith("MWH.SEQ-")) {
+          seen.add(change.id);
+        }
+      }
+      if (written && page.isEmpty()) {
+        break;
+      }
+    }
+    for (Future<?> writer : writers) {
+      writer.get();
+    }
+    executor.shutdown();
+
+    List<Long> committed =
+        QuarkusTransaction.requiringNew()
+            .call(
+                () ->
+                    repository
+                        .find("warehouseBusinessUnitCode like ?1", Sort.by("id"), "MWH.SEQ-%")
+                        .stream()
+                        .map(change -> change.id)
+                        .toList());
+    assertTrue(committed.size() < WRITERS * CHANGES_PER_WRITER);
+    assertEquals(committed, seen);
+  }
+
+  @Test
+  public void testExpiredChangesAreRemovedAndReportedAsGone() {
+    QuarkusTransaction.requiringNew()
+        .run(() -> repository.onAssignmentEvent(removed("MWH.CHANGE-OLD")));
+    long last =
+        QuarkusTransaction.requiringNew()
+            .call(
+                () -> {
+                  List<FulfillmentAssignmentChange> changes = repository.findSince(0, 10_000);
+                  return changes.get(changes.size() - 1).id;
+                });
+
+    long removed =
+        QuarkusTransaction.requiringNew()
+            .call(() -> repository.removeOlderThan(LocalDateTime.now().plusMinutes(1)));
+
+    assertTrue(removed > 0);
+    assertEquals(last, (long) QuarkusTransaction.requiringNew().call(repository::prunedThrough));
+    given().queryParam("since", last - 1).when().get("fulfillment/changes").then().statusCode(410);
+    given().queryParam("since", last).when().get("fulfillment/changes").then().statusCode(200);
+  }
+
+  private static FulfillmentAssignmentEvent removed(String warehouseBusinessUnitCode) {
+    return FulfillmentAssignmentEvent.warehouseRemoved(warehouseBusinessUnitCode);
+  }
+
+  private static boolean contains(
+      List<FulfillmentAssignmentChange> changes, String warehouseBusinessUnitCode) {
+    return changes.stream()
+        .anyMatch(c -> c.warehouseBusinessUnitCode.equals(warehouseBusinessUnitCode));
+  }
+
+  private static FulfillmentAssignmentChange find(
+      List<FulfillmentAssignmentChange> changes, String warehouseBusinessUnitCode) {
+    return changes.stream()
+        .filter(c -> c.warehouseBusinessUnitCode.equals(warehouseBusinessUnitCode))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
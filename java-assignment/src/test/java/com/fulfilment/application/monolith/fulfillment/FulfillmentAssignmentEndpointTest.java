@@ -3,9 +3,21 @@ package com.fulfilment.application.monolith.fulfillment;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
-
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.util.List;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -27,6 +39,8 @@ public class FulfillmentAssignmentEndpointTest {
 
   private static final String PATH = "fulfillment";
 
+  @Inject FulfillmentAssignmentRepository repository;
+
   // Test data from import.sql:
   // Products: 1 (TONSTAD), 2 (KALLAX), 3 (BESTÅ)
   // Stores: 1 (TONSTAD), 2 (KALLAX), 3 (BESTÅ)
@@ -475,4 +489,342 @@ public class FulfillmentAssignmentEndpointTest {
         .then()
         .statusCode(400);
   }
+
+  @Test
+  @Order(22)
+  public void testCreateBatchAppliesConstraintsAcrossItems() {
+    // Store 2 has no assignments yet; MWH.001 stores products 4, 5, 6 and 7 for store 3
+    String body =
+        """
+        [
+          { "productId": 1, "warehouseBusinessUnitCode": "MWH.001", "storeId": 2 },
+          { "productId": 1, "warehouseBusinessUnitCode": "MWH.012", "storeId": 2 },
+          { "productId": 1, "warehouseBusinessUnitCode": "MWH.TEST", "storeId": 2 },
+          { "productId": 1, "warehouseBusinessUnitCode": "MWH.001", "storeId": 2 },
+          { "productId": 999, "warehouseBusinessUnitCode": "MWH.001", "storeId": 2 },
+          { "productId": 2, "warehouseBusinessUnitCode": "MWH.001", "storeId": 2 },
+          { "productId": 2 }
+        ]
+        """;
+
+    given()
+        .contentType(ContentType.JSON)
+        .body(body)
+        .when()
+        .post(PATH + "/batch")
+        .then()
+        .statusCode(200)
+        .body("success", contains(true, true, false, false, false, false, false))
+        .body("[0].assignment.warehouseBusinessUnitCode", is("MWH.001"))
+        .body("[2].error", containsString("already fulfilled by 2 warehouses"))
+        .body("[3].error", containsString("already exists"))
+        .body("[4].error", containsString("Product with id 999 does not exist"))
+        .body("[5].error", containsString("already stores 5 different products"))
+        .body("[6].error", containsString("warehouseBusinessUnitCode is required"));
+
+    given()
+        .when()
+        .get(PATH + "/by-store/2")
+        .then()
+        .statusCode(200)
+        .body("warehouseBusinessUnitCode", containsInAnyOrder("MWH.001", "MWH.012"));
+  }
+
+  @Test
+  @Order(23)
+  public void testCreateEmptyBatchFails() {
+    given()
+        .contentType(ContentType.JSON)
+        .body("[]")
+        .when()
+        .post(PATH + "/batch")
+        .then()
+        .statusCode(400);
+  }
+
+  @Test
+  @Order(24)
+  public void testListAssignmentsWithKeysetPagination() {
+    // Store 3 is fulfilled by MWH.001 for products 4, 5, 6 and 7
+    String cursor =
+        given()
+            .queryParam("limit", 3)
+            .when()
+            .get(PATH + "/by-store/3")
+            .then()
+            .statusCode(200)
+            .body("productId", contains(4, 5, 6))
+            .header("X-Next-Cursor", notNullValue())
+            .extract()
+            .header("X-Next-Cursor");
+
+    given()
+        .queryParam("limit", 3)
+        .queryParam("cursor", cursor)
+        .when()
+        .get(PATH + "/by-store/3")
+        .then()
+        .statusCode(200)
+        .body("productId", contains(7))
+        .header("X-Next-Cursor", nullValue());
+  }
+
+  @Test
+  @Order(25)
+  public void testListAssignmentsWithInvalidPagingFails() {
+    given().queryParam("cursor", "not-a-cursor").when().get(PATH).then().statusCode(400);
+    given().queryParam("limit", 0).when().get(PATH).then().statusCode(400);
+  }
+
+  @Test
+  @Order(26)
+  public void testExportAssignmentsAsNdjson() {
+    String body =
+        given()
+            .queryParam("storeId", 3)
+            .when()
+            .get(PATH + "/export")
+            .then()
+            .statusCode(200)
+            .contentType(containsString("application/x-ndjson"))
+            .extract()
+            .asString();
+
+    String[] lines = body.strip().split("\n");
+    assertEquals(4, lines.length);
+    for (String line : lines) {
+      assertTrue(line.startsWith("{") && line.contains("\"storeId\":3"), line);
+    }
+  }
+
+  @Test
+  @Order(27)
+  public void testArchivingWarehouseRemovesItsAssignments() {
+    // Store 2 is fulfilled by MWH.001 and MWH.012, so MWH.TEST is its third warehouse
+    String body =
+        """
+        {
+          "productId": 3,
+          "warehouseBusinessUnitCode": "MWH.TEST",
+          "storeId": 2
+        }
+        """;
+
+    given()
+        .contentType(ContentType.JSON)
+        .body(body)
+        .when()
+        .post(PATH)
+        .then()
+        .statusCode(201);
+
+    given()
+        .when()
+        .delete("warehouse/MWH.TEST")
+        .then()
+        .statusCode(204)
+        .header("X-Removed-Assignments", "1");
+
+    given()
+        .when()
+        .get(PATH + "/by-warehouse/MWH.TEST")
+        .then()
+        .statusCode(200)
+        .body(is("[]"));
+
+    given()
+        .when()
+        .get(PATH + "/by-store/2")
+        .then()
+        .statusCode(200)
+        .body("warehouseBusinessUnitCode", containsInAnyOrder("MWH.001", "MWH.012"));
+  }
+
+  @Test
+  @Order(28)
+  public void testRoutingListsWarehousesWithStock() {
+    // the MWH.001 assignment of product 1 to store 1 was deleted above
+    given()
+        .queryParam("productId", 1)
+        .queryParam("storeId", 1)
+        .when()
+        .get(PATH + "/routing")
+        .then()
+        .statusCode(200)
+        .body("warehouseBusinessUnitCode", contains("MWH.012"))
+        .body("[0].location", is("AMSTERDAM-001"))
+        .body("[0].capacity", is(50))
+        .body("[0].stock", is(5));
+
+    given()
+        .queryParam("productId", 3)
+        .queryParam("storeId", 2)
+        .when()
+        .get(PATH + "/routing")
+        .then()
+        .statusCode(200)
+        .body(is("[]"));
+
+    given().queryParam("productId", 1).when().get(PATH + "/routing").then().statusCode(400);
+  }
+
+  @Test
+  @Order(29)
+  public void testValidateReportsViolationsWithoutCreating() {
+    String body =
+        """
+        [
+          { "productId": 2, "warehouseBusinessUnitCode": "MWH.012", "storeId": 1 },
+          { "productId": 1, "warehouseBusinessUnitCode": "MWH.012", "storeId": 1 },
+          { "productId": 999, "warehouseBusinessUnitCode": "MWH.012", "storeId": 1 },
+          { "productId": 2, "warehouseBusinessUnitCode": "MWH.012", "storeId": 1 }
+        ]
+        """;
+
+    given()
+        .contentType(ContentType.JSON)
+        .body(body)
+        .when()
+        .post(PATH + "/validate")
+        .then()
+        .statusCode(200)
+        .body("success", contains(true, false, false, false))
+        .body("[0].assignment.id", nullValue())
+        .body("[1].error", containsString("already exists"))
+        .body("[2].error", containsString("Product with id 999 does not exist"))
+        .body("[3].error", containsString("already exists"));
+
+    given()
+        .queryParam("productId", 2)
+        .queryParam("storeId", 1)
+        .when()
+        .get(PATH + "/routing")
+        .then()
+        .statusCode(200)
+        .body("warehouseBusinessUnitCode", not(hasItem("MWH.012")));
+  }
+
+  @Test
+  @Order(30)
+  public void testChangeFeedReturnsOnlyNewChanges() {
+    List<Integer> seen =
+        given()
+            .queryParam("limit", 1000)
+            .when()
+            .get(PATH + "/changes")
+            .then()
+            .statusCode(200)
+            .extract()
+            .jsonPath()
+            .getList("id", Integer.class);
+    assertFalse(seen.isEmpty());
+    int since = seen.get(seen.size() - 1);
+
+    String body =
+        """
+        {
+          "productId": 3,
+          "warehouseBusinessUnitCode": "MWH.023",
+          "storeId": 1
+        }
+        """;
+    int id =
+        given()
+            .contentType(ContentType.JSON)
+            .body(body)
+            .when()
+            .post(PATH)
+            .then()
+            .statusCode(201)
+            .extract()
+            .path("id");
+    given().when().delete(PATH + "/" + id).then().statusCode(204);
+
+    given()
+        .queryParam("since", since)
+        .when()
+        .get(PATH + "/changes")
+        .then()
+        .statusCode(200)
+        .body("type", contains("CREATED", "DELETED"))
+        .body("assignmentId", contains(id, id))
+        .body("[0].warehouseBusinessUnitCode", is("MWH.023"));
+
+    given().queryParam("since", -1).when().get(PATH + "/changes").then().statusCode(400);
+  }
+
+  @Test
+  @Order(31)
+  public void testCreateWithIdempotencyKeyReplaysOriginalResult() {
+    String body =
+        """
+        {
+          "productId": 3,
+          "warehouseBusinessUnitCode": "MWH.023",
+          "storeId": 1
+        }
+        """;
+
+    int id =
+        given()
+            .header("Idempotency-Key", "order-31")
+            .contentType(ContentType.JSON)
+            .body(body)
+            .when()
+            .post(PATH)
+            .then()
+            .statusCode(201)
+            .extract()
+            .path("id");
+
+    given()
+        .header("Idempotency-Key", "order-31")
+        .contentType(ContentType.JSON)
+        .body(body)
+        .when()
+        .post(PATH)
+        .then()
+        .statusCode(201)
+        .body("id", is(id));
+
+    given()
+        .header("Idempotency-Key", "order-31")
+        .contentType(ContentType.JSON)
+        .body(body.replace("\"storeId\": 1", "\"storeId\": 2"))
+        .when()
+        .post(PATH)
+        .then()
+        .statusCode(422);
+
+    // without a key the retry is a new request and hits the duplicate check
+    given()
+        .contentType(ContentType.JSON)
+        .body(body)
+        .when()
+        .post(PATH)
+        .then()
+        .statusCode(400)
+        .body(containsString("already exists"));
+
+    given().when().delete(PATH + "/" + id).then().statusCode(204);
+  }
+
+  @Test
+  @Order(32)
+  public void testDuplicateUnknownToTheIndexIsRejectedByTheUniqueConstraint() {
+    // inserted without an event, as another instance would, so the constraint index misses it
+    FulfillmentAssignment existing = new FulfillmentAssignment(3L, "MWH.023", 1L);
+    QuarkusTransaction.requiringNew().run(() -> repository.persist(existing));
+
+    given()
+        .contentType(ContentType.JSON)
+        .body(new FulfillmentAssignmentRequest(3L, "MWH.023", 1L))
+        .when()
+        .post(PATH)
+        .then()
+        .statusCode(400)
+        .body(containsString("already exists"));
+
+    given().when().delete(PATH + "/" + existing.id).then().statusCode(204);
+  }
 }
@@ -0,0 +1,81 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that {@link FulfillmentAssignmentRepository} reads only what it needs: the warehouse
+ * count is one scalar aggregate, however many rows match, and the constraint keys never become
+ * managed entities.
+ */
+@QuarkusTest
+public class FulfillmentAssignmentRepositoryTest {
+
+  private static final Long STORE_ID = 9001L;
+  private static final String WAREHOUSE = "MWH.REPO";
+
+  @Inject FulfillmentAssignmentRepository repository;
+
+  @Inject EntityManager entityManager;
+
+  @Test
+  @TestTransaction
+  public void testAggregatesDoNotLoadEntitiesAsDataGrows() {
+    insertAssignments(0, 10);
+    assertScalarOnly(10);
+
+    insertAssignments(10, 500);
+    assertScalarOnly(500);
+  }
+
+  @Test
+  @TestTransaction
+  public void testConstraintKeysAreReadWithoutManagingEntities() {
+    insertAssignments(0, 10);
+
+    List<FulfillmentAssignment> keys;
+    try (Stream<FulfillmentAssignment> assignments = repository.streamConstraintKeys()) {
+      keys = assignments.filter(a -> STORE_ID.equals(a.storeId)).toList();
+    }
+
+    assertEquals(20, keys.size());
+    assertTrue(keys.stream().allMatch(a -> a.warehouseBusinessUnitCode.startsWith(WAREHOUSE)));
+    assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+  }
+
+  private void assertScalarOnly(long expectedCount) {
+    Statistics statistics =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    long count = repository.countByWarehouse(WAREHOUSE);
+
+    assertEquals(expectedCount, count);
+    assertEquals(0, statistics.getEntityLoadCount());
+    // one aggregate query fetching a single scalar row, however many assignments match
+    assertEquals(1, statistics.getQueryExecutionCount());
+    String query = statistics.getQueries()[0];
+    assertTrue(query.toLowerCase().contains("count("), query);
+    assertEquals(1, statistics.getQueryStatistics(query).getExecutionRowCount(), query);
+  }
+
+  private void insertAssignments(int from, int to) {
+    for (int i = from; i < to; i++) {
+      repository.persist(new FulfillmentAssignment((long) i, WAREHOUSE + "-" + i, STORE_ID));
+      repository.persist(new FulfillmentAssignment((long) i, WAREHOUSE, STORE_ID));
+    }
+    repository.flush();
+    entityManager.clear();
+  }
+}
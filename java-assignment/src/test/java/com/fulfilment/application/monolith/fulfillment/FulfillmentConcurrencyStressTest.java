@@ -0,0 +1,205 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.products.ProductRepository;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fires concurrent {@code POST /fulfillment} requests over a small set of stores, products and
+ * warehouses so that many requests compete for the same limits, then checks that none of the
+ * three constraints was exceeded and reports the observed throughput.
+ */
+@QuarkusTest
+public class FulfillmentConcurrencyStressTest {
+
+  private static final Logger LOGGER =
+      Logger.getLogger(FulfillmentConcurrencyStressTest.class.getName());
+
+  private static final int THREADS = 16;
+  private static final int REQUESTS_PER_THREAD = 25;
+
+  @Inject FulfillmentAssignmentRepository repository;
+
+  @Inject ProductRepository productRepository;
+
+  @Inject WarehouseRepository warehouseRepository;
+
+  @Inject FulfillmentConstraintIndex constraintIndex;
+
+  private final List<Long> storeIds = new ArrayList<>();
+  private final List<Long> productIds = new ArrayList<>();
+  private final List<String> warehouseCodes = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    QuarkusTransaction.requiringNew()
+        .run(
+            () -> {
+              for (int i = 0; i < 4; i++) {
+                Store store = new Store("STRESS-S" + i);
+                store.persist();
+                storeIds.add(store.id);
+              }
+              for (int i = 0; i < 8; i++) {
+                Product product = new Product("STRESS-P" + i);
+                productRepository.persist(product);
+                productIds.add(product.id);
+
+                DbWarehouse warehouse = new DbWarehouse();
+                warehouse.businessUnitCode = "STRESS." + i;
+                warehouse.location = "STRESS-001";
+                warehouse.capacity = 10;
+                warehouse.stock = 0;
+                warehouse.createdAt = LocalDateTime.now();
+                warehouseRepository.persist(warehouse);
+                warehouseCodes.add(warehouse.businessUnitCode);
+              }
+            });
+  }
+
+  @AfterEach
+  void tearDown() {
+    QuarkusTransaction.requiringNew()
+        .run(
+            () -> {
+              repository.delete("storeId in ?1", storeIds);
+              Store.delete("name like ?1", "STRESS-S%");
+              productRepository.delete("name like ?1", "STRESS-P%");
+              warehouseRepository.delete("businessUnitCode like ?1", "STRESS.%");
+            });
+    constraintIndex.invalidate();
+  }
+
+  @Test
+  public void testConcurrentCreatesRespectAllLimits() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger created = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    ConcurrentHashMap<Integer, AtomicInteger> unexpected = new ConcurrentHashMap<>();
+
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      Random random = new Random(t);
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                  int status =
+                      post(
+                          pick(random, productIds),
+                          pick(random, warehouseCodes),
+                          pick(random, storeIds));
+                  if (status == 201) {
+                    created.incrementAndGet();
+                  } else if (status == 400) {
+                    rejected.incrementAndGet();
+                  } else {
+                    unexpected.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+                  }
+                }
+                return null;
+              }));
+    }
+
+    long startedAt = System.nanoTime();
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(2, TimeUnit.MINUTES);
+    }
+    long elapsedNanos = System.nanoTime() - startedAt;
+    executor.shutdown();
+
+    int total = THREADS * REQUESTS_PER_THREAD;
+    LOGGER.infof(
+        "Fulfillment stress: %d requests (%d created, %d rejected) on %d threads in %d ms,"
+            + " %.1f requests/s",
+        total,
+        created.get(),
+        rejected.get(),
+        THREADS,
+        TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+        total / (elapsedNanos / 1_000_000_000.0));
+
+    assertTrue(unexpected.isEmpty(), "Unexpected status codes: " + unexpected);
+    assertTrue(created.get() > 0);
+    assertInvariants(created.get());
+  }
+
+  private void assertInvariants(int created) {
+    QuarkusTransaction.requiringNew()
+        .run(
+            () -> {
+              assertEquals(created, repository.count("storeId in ?1", storeIds));
+              List<FulfillmentAssignment> assignments = repository.list("storeId in ?1", storeIds);
+              for (Long storeId : storeIds) {
+                Set<String> warehouses =
+                    assignments.stream()
+                        .filter(a -> a.storeId.equals(storeId))
+                        .map(a -> a.warehouseBusinessUnitCode)
+                        .collect(Collectors.toSet());
+                assertTrue(warehouses.size() <= 3, "Store " + storeId + " has " + warehouses);
+                assertEquals(warehouses, constraintIndex.warehousesForStore(storeId));
+                for (Long productId : productIds) {
+                  long count =
+                      assignments.stream()
+                          .filter(a -> a.storeId.equals(storeId) && a.productId.equals(productId))
+                          .count();
+                  assertTrue(count <= 2, "Product " + productId + " at store " + storeId);
+                }
+              }
+              for (String code : warehouseCodes) {
+                Set<Long> products =
+                    assignments.stream()
+                        .filter(a -> a.warehouseBusinessUnitCode.equals(code))
+                        .map(a -> a.productId)
+                        .collect(Collectors.toSet());
+                assertTrue(products.size() <= 5, "Warehouse " + code + " has " + products);
+                assertEquals(products, constraintIndex.productsInWarehouse(code));
+              }
+            });
+  }
+
+  private static int post(Long productId, String warehouseCode, Long storeId) {
+    return given()
+        .contentType(ContentType.JSON)
+        .body(new FulfillmentAssignmentRequest(productId, warehouseCode, storeId))
+        .when()
+        .post("fulfillment")
+        .then()
+        .extract()
+        .statusCode();
+  }
+
+  private static <T> T pick(Random random, List<T> values) {
+    return values.get(random.nextInt(values.size()));
+  }
+}
@@ -0,0 +1,81 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class FulfillmentConstraintCheckerTest {
+
+  private FulfillmentAssignmentRepository repository;
+  private FulfillmentConstraintIndex index;
+
+  @BeforeEach
+  void setUp() {
+    repository = Mockito.mock(FulfillmentAssignmentRepository.class);
+    index = new FulfillmentConstraintIndex(repository);
+  }
+
+  @Test
+  void shouldRejectDuplicateOfCommittedAssignment() {
+    when(repository.streamConstraintKeys()).thenReturn(Stream.of(new FulfillmentAssignment(1L, "A", 1L)));
+    FulfillmentConstraintChecker checker = new FulfillmentConstraintChecker(index);
+
+    assertEquals(
+        "This fulfillment assignment already exists.", checker.findViolation(1L, "A", 1L));
+  }
+
+  @Test
+  void shouldCountAcceptedCandidatesTowardsLimits() {
+    when(repository.streamConstraintKeys()).thenReturn(Stream.of(new FulfillmentAssignment(1L, "A", 1L)));
+    FulfillmentConstraintChecker checker = new FulfillmentConstraintChecker(index);
+
+    assertNull(checker.findViolation(1L, "B", 1L));
+    checker.accept(1L, "B", 1L);
+
+    assertEquals(
+        "Product 1 is already fulfilled by 2 warehouses for store 1. Maximum reached.",
+        checker.findViolation(1L, "C", 1L));
+    assertEquals(
+        "This fulfillment assignment already exists.", checker.findViolation(1L, "B", 1L));
+
+    assertNull(checker.findViolation(2L, "C", 1L));
+    checker.accept(2L, "C", 1L);
+
+    assertEquals(
+        "Store 1 is already fulfilled by 3 different warehouses. Maximum reached.",
+        checker.findViolation(3L, "D", 1L));
+    assertNull(checker.findViolation(3L, "A", 1L));
+  }
+
+  @Test
+  void shouldRejectSixthProductInWarehouse() {
+    when(repository.streamConstraintKeys()).thenReturn(Stream.empty());
+    FulfillmentConstraintChecker checker = new FulfillmentConstraintChecker(index);
+
+    for (long productId = 1; productId <= 5; productId++) {
+      assertNull(checker.findViolation(productId, "A", productId));
+      checker.accept(productId, "A", productId);
+    }
+
+    assertEquals(
+        "Warehouse 'A' already stores 5 different products. Maximum reached.",
+        checker.findViolation(6L, "A", 6L));
+    assertNull(checker.findViolation(5L, "A", 6L));
+  }
+
+  @Test
+  void shouldNotModifyTheIndex() {
+    when(repository.streamConstraintKeys()).thenReturn(Stream.empty());
+    FulfillmentConstraintChecker checker = new FulfillmentConstraintChecker(index);
+
+    checker.accept(1L, "A", 1L);
+
+    assertEquals(Set.of(), index.warehousesForStore(1L));
+  }
+}
@@ -0,0 +1,119 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class FulfillmentConstraintIndexTest {
+
+  private FulfillmentAssignmentRepository repository;
+  private FulfillmentConstraintIndex index;
+
+  @BeforeEach
+  void setUp() {
+    repository = Mockito.mock(FulfillmentAssignmentRepository.class);
+    index = new FulfillmentConstraintIndex(repository);
+  }
+
+  @Test
+  void shouldLoadExistingAssignmentsOnFirstLookup() {
+    when(repository.streamConstraintKeys())
+        .thenReturn(
+            Stream.of(
+                new FulfillmentAssignment(1L, "MWH.001", 1L),
+                new FulfillmentAssignment(1L, "MWH.012", 1L),
+                new FulfillmentAssignment(2L, "MWH.001", 2L)));
+
+    assertEquals(Set.of("MWH.001", "MWH.012"), index.warehousesForProductAtStore(1L, 1L));
+    assertEquals(Set.of(), index.warehousesForProductAtStore(2L, 1L));
+    assertEquals(Set.of("MWH.001", "MWH.012"), index.warehousesForStore(1L));
+    assertEquals(Set.of(1L, 2L), index.productsInWarehouse("MWH.001"));
+
+    verify(repository, times(1)).streamConstraintKeys();
+  }
+
+  @Test
+  void shouldApplyCreateAndDeleteEvents() {
+    when(repository.streamConstraintKeys()).thenReturn(Stream.empty());
+    assertEquals(Set.of(), index.warehousesForStore(1L));
+
+    FulfillmentAssignment first = new FulfillmentAssignment(1L, "MWH.001", 1L);
+    FulfillmentAssignment second = new FulfillmentAssignment(2L, "MWH.001", 1L);
+    index.onAssignmentEvent(created(first));
+    index.onAssignmentEvent(created(second));
+
+    assertEquals(Set.of("MWH.001"), index.warehousesForStore(1L));
+    assertEquals(Set.of(1L, 2L), index.productsInWarehouse("MWH.001"));
+
+    index.onAssignmentEvent(deleted(first));
+
+    assertEquals(Set.of(), index.warehousesForProductAtStore(1L, 1L));
+    assertEquals(Set.of("MWH.001"), index.warehousesForStore(1L));
+    assertEquals(Set.of(2L), index.productsInWarehouse("MWH.001"));
+
+    index.onAssignmentEvent(deleted(second));
+
+    assertEquals(Set.of(), index.warehousesForStore(1L));
+    assertEquals(Set.of(), index.productsInWarehouse("MWH.001"));
+  }
+
+  @Test
+  void shouldIgnoreDuplicateEvents() {
+    FulfillmentAssignment assignment = new FulfillmentAssignment(1L, "MWH.001", 1L);
+    when(repository.streamConstraintKeys()).thenReturn(Stream.of(assignment));
+    assertEquals(Set.of("MWH.001"), index.warehousesForProductAtStore(1L, 1L));
+
+    index.onAssignmentEvent(created(assignment));
+    index.onAssignmentEvent(deleted(assignment));
+
+    assertEquals(Set.of(), index.warehousesForProductAtStore(1L, 1L));
+  }
+
+  @Test
+  void shouldIgnoreEventsBeforeLoadAndReloadAfterInvalidate() {
+    index.onAssignmentEvent(created(new FulfillmentAssignment(1L, "MWH.001", 1L)));
+
+    when(repository.streamConstraintKeys())
+        .thenReturn(Stream.empty(), Stream.of(new FulfillmentAssignment(3L, "MWH.023", 2L)));
+
+    assertEquals(Set.of(), index.warehousesForProductAtStore(1L, 1L));
+
+    index.invalidate();
+
+    assertEquals(Set.of("MWH.023"), index.warehousesForProductAtStore(3L, 2L));
+    verify(repository, times(2)).streamConstraintKeys();
+  }
+
+  @Test
+  void shouldDropAllAssignmentsOfRemovedWarehouse() {
+    when(repository.streamConstraintKeys())
+        .thenReturn(
+            Stream.of(
+                new FulfillmentAssignment(1L, "MWH.001", 1L),
+                new FulfillmentAssignment(2L, "MWH.001", 2L),
+                new FulfillmentAssignment(2L, "MWH.012", 2L)));
+    assertEquals(Set.of(1L, 2L), index.productsInWarehouse("MWH.001"));
+
+    index.onAssignmentEvent(FulfillmentAssignmentEvent.warehouseRemoved("MWH.001"));
+
+    assertEquals(Set.of(), index.productsInWarehouse("MWH.001"));
+    assertEquals(Set.of(), index.warehousesForStore(1L));
+    assertEquals(Set.of("MWH.012"), index.warehousesForStore(2L));
+    assertEquals(Set.of("MWH.012"), index.warehousesForProductAtStore(2L, 2L));
+  }
+
+  private static FulfillmentAssignmentEvent created(FulfillmentAssignment assignment) {
+    return new FulfillmentAssignmentEvent(assignment, FulfillmentAssignmentEvent.Type.CREATED);
+  }
+
+  private static FulfillmentAssignmentEvent deleted(FulfillmentAssignment assignment) {
+    return new FulfillmentAssignmentEvent(assignment, FulfillmentAssignmentEvent.Type.DELETED);
+  }
+}
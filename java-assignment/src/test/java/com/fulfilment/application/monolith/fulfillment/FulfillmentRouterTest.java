@@ -0,0 +1,76 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class FulfillmentRouterTest {
+
+  private FulfillmentAssignmentRepository repository;
+  private WarehouseStore warehouseStore;
+  private FulfillmentRouter router;
+
+  @BeforeEach
+  void setUp() {
+    repository = Mockito.mock(FulfillmentAssignmentRepository.class);
+    warehouseStore = Mockito.mock(WarehouseStore.class);
+    router = new FulfillmentRouter(new FulfillmentConstraintIndex(repository), warehouseStore);
+
+    when(repository.streamConstraintKeys())
+        .thenReturn(
+            Stream.of(
+                new FulfillmentAssignment(1L, "MWH.012", 1L),
+                new FulfillmentAssignment(1L, "MWH.001", 1L),
+                new FulfillmentAssignment(2L, "MWH.023", 1L)));
+  }
+
+  @Test
+  void shouldReturnCandidatesWithStockOrderedByCode() {
+    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(warehouse("MWH.001", 10));
+    when(warehouseStore.findByBusinessUnitCode("MWH.012")).thenReturn(warehouse("MWH.012", 5));
+
+    List<FulfillmentRoutingCandidate> candidates = router.route(1L, 1L);
+
+    assertEquals(2, candidates.size());
+    assertEquals("MWH.001", candidates.get(0).warehouseBusinessUnitCode);
+    assertEquals(10, candidates.get(0).stock);
+    assertEquals("MWH.012", candidates.get(1).warehouseBusinessUnitCode);
+  }
+
+  @Test
+  void shouldReadWarehousesThroughTheStoreOnEveryRoute() {
+    when(warehouseStore.findByBusinessUnitCode("MWH.023"))
+        .thenReturn(warehouse("MWH.023", 27), warehouse("MWH.023", 3));
+
+    assertEquals(27, router.route(2L, 1L).get(0).stock);
+    assertEquals(3, router.route(2L, 1L).get(0).stock);
+    verify(warehouseStore, times(2)).findByBusinessUnitCode("MWH.023");
+  }
+
+  @Test
+  void shouldSkipWarehousesThatAreNoLongerActive() {
+    when(warehouseStore.findByBusinessUnitCode("MWH.023")).thenReturn(null);
+
+    assertTrue(router.route(2L, 1L).isEmpty());
+    assertTrue(router.route(3L, 1L).isEmpty());
+  }
+
+  private static Warehouse warehouse(String code, int stock) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = code;
+    warehouse.location = "ZWOLLE-001";
+    warehouse.capacity = 100;
+    warehouse.stock = stock;
+    return warehouse;
+  }
+}
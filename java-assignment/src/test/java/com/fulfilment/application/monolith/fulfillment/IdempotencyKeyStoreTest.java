@@ -0,0 +1,99 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class IdempotencyKeyStoreTest {
+
+  private final Map<Object, Object> resources = new HashMap<>();
+  private final List<Synchronization> synchronizations = new ArrayList<>();
+  private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+  private IdempotencyKeyStore store;
+
+  @BeforeEach
+  void setUp() {
+    TransactionSynchronizationRegistry registry =
+        Mockito.mock(TransactionSynchronizationRegistry.class);
+    doAnswer(inv -> resources.put(inv.getArgument(0), inv.getArgument(1)))
+        .when(registry)
+        .putResource(any(), any());
+    when(registry.getResource(any())).thenAnswer(inv -> resources.get(inv.getArgument(0)));
+    doAnswer(inv -> synchronizations.add(inv.getArgument(0)))
+        .when(registry)
+        .registerInterposedSynchronization(any());
+
+    Clock clock = Mockito.mock(Clock.class);
+    when(clock.instant()).thenAnswer(inv -> now);
+    when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+    store = new IdempotencyKeyStore(registry, 2, Duration.ofMinutes(10), clock);
+  }
+
+  @Test
+  void shouldReplayResponseOnlyAfterCommit() {
+    assertNull(store.begin("k1", "a"));
+    store.respond("k1", "created");
+
+    IdempotencyKeyStore.Entry pending = store.begin("k1", "a");
+    assertNotNull(pending);
+    assertNull(pending.getResponse());
+
+    complete(Status.STATUS_COMMITTED);
+
+    IdempotencyKeyStore.Entry done = store.begin("k1", "a");
+    assertTrue(done.matches("a"));
+    assertFalse(done.matches("b"));
+    assertEquals("created", done.getResponse());
+  }
+
+  @Test
+  void shouldForgetKeyWhenTransactionRollsBack() {
+    assertNull(store.begin("k1", "a"));
+    complete(Status.STATUS_ROLLEDBACK);
+
+    assertEquals(0, store.size());
+    assertNull(store.begin("k1", "a"));
+  }
+
+  @Test
+  void shouldEvictExpiredAndOldestKeys() {
+    store.begin("k1", "a");
+    now = now.plusSeconds(60);
+    store.begin("k2", "b");
+    store.begin("k3", "c");
+
+    assertEquals(2, store.size());
+    assertNull(store.begin("k1", "a"), "oldest key should have been evicted");
+
+    now = now.plus(Duration.ofMinutes(11));
+    assertNull(store.begin("k4", "d"));
+    assertEquals(1, store.size());
+  }
+
+  private void complete(int status) {
+    synchronizations.forEach(s -> s.afterCompletion(status));
+    synchronizations.clear();
+    resources.clear();
+  }
+}
@@ -0,0 +1,84 @@
+package com.fulfilment.application.monolith.location;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+@QuarkusTest
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class LocationEndpointTest {
+
+  private static final String PATH = "location";
+
+  @Test
+  @Order(1)
+  public void testUsageOfSeededLocation() {
+    given()
+        .when()
+        .get(PATH + "/TILBURG-001/usage")
+        .then()
+        .statusCode(200)
+        .body("location", is("TILBURG-001"))
+        .body("maxNumberOfWarehouses", is(1))
+        .body("maxCapacity", is(40));
+  }
+
+  @Test
+  @Order(2)
+  public void testUsageFollowsCreateAndArchive() {
+    given()
+        .when()
+        .get(PATH + "/VETSBY-001/usage")
+        .then()
+        .statusCode(200)
+        .body("activeWarehouses", is(0))
+        .body("usedCapacity", is(0));
+
+    String body =
+        """
+        {
+          "businessUnitCode": "MWH.LOC",
+          "location": "VETSBY-001",
+          "capacity": 60,
+          "stock": 5
+        }
+        """;
+    given()
+        .contentType(ContentType.JSON)
+        .body(body)
+        .when()
+        .post("warehouse")
+        .then()
+        .statusCode(200);
+
+    given()
+        .when()
+        .get(PATH + "/VETSBY-001/usage")
+        .then()
+        .statusCode(200)
+        .body("activeWarehouses", is(1))
+        .body("usedCapacity", is(60));
+
+    given().when().delete("warehouse/MWH.LOC").then().statusCode(204);
+
+    given()
+        .when()
+        .get(PATH + "/VETSBY-001/usage")
+        .then()
+        .statusCode(200)
+        .body("activeWarehouses", is(0))
+        .body("usedCapacity", is(0));
+  }
+
+  @Test
+  @Order(3)
+  public void testUsageOfUnknownLocationReturns404() {
+    given().when().get(PATH + "/NOWHERE-001/usage").then().statusCode(404);
+  }
+}
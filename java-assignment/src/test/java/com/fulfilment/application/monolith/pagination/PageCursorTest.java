@@ -0,0 +1,39 @@
+package com.fulfilment.application.monolith.pagination;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Test;
+
+public class PageCursorTest {
+
+  @Test
+  void shouldRoundTripLastId() {
+    assertEquals(42L, PageCursor.decode(PageCursor.encode(42L)));
+  }
+
+  @Test
+  void shouldStartFromBeginningWithoutCursor() {
+    assertNull(PageCursor.decode(null));
+    assertNull(PageCursor.decode(""));
+  }
+
+  @Test
+  void shouldRejectMalformedCursor() {
+    WebApplicationException ex =
+        assertThrows(WebApplicationException.class, () -> PageCursor.decode("%%%"));
+    assertEquals(400, ex.getResponse().getStatus());
+    assertThrows(WebApplicationException.class, () -> PageCursor.decode("Zm9v"));
+  }
+
+  @Test
+  void shouldValidateLimit() {
+    assertEquals(PageCursor.DEFAULT_LIMIT, PageCursor.limit(null));
+    assertEquals(10, PageCursor.limit(10));
+    assertThrows(WebApplicationException.class, () -> PageCursor.limit(0));
+    assertThrows(
+        WebApplicationException.class, () -> PageCursor.limit(PageCursor.MAX_LIMIT + 1));
+  }
+}
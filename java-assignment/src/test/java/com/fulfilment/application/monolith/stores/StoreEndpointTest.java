@@ -3,9 +3,12 @@ package com.fulfilment.application.monolith.stores;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.core.IsNot.not;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -300,4 +303,40 @@ public class StoreEndpointTest {
         .statusCode(201)
         .body(containsString("MINIMAL_STORE"));
   }
+
+  @Test
+  @Order(18)
+  public void testListingIsServedFromQueryCacheUntilStoresChange() {
+    given().when().get(PATH).then().statusCode(200);
+    double hits = queryCacheHits();
+    given().when().get(PATH).then().statusCode(200);
+    assertTrue(queryCacheHits() > hits);
+
+    String body =
+        """
+        {
+          "name": "CACHED_THEN_RENAMED"
+        }
+        """;
+    given()
+        .contentType(ContentType.JSON)
+        .body(body)
+        .when()
+        .patch(PATH + "/3")
+        .then()
+        .statusCode(200);
+
+    given().when().get(PATH).then().statusCode(200).body(containsString("CACHED_THEN_RENAMED"));
+  }
+
+  private static double queryCacheHits() {
+    String metrics = given().when().get("q/metrics").then().statusCode(200).extract().asString();
+    Matcher matcher =
+        Pattern.compile(
+                "hibernate_cache_query_region_requests_total\\{region=\"store-list\","
+                    + "result=\"hit\",?} (\\S+)")
+            .matcher(metrics);
+    assertTrue(matcher.find(), "No query cache metrics for store-list");
+    return Double.parseDouble(matcher.group(1));
+  }
 }
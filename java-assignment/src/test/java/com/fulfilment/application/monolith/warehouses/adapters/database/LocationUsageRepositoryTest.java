@@ -0,0 +1,49 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class LocationUsageRepositoryTest {
+
+  @Inject LocationUsageRepository repository;
+
+  @Test
+  public void testConcurrentFirstLocksOfALocationBothSucceed() throws Exception {
+    CountDownLatch firstLocked = new CountDownLatch(1);
+
+    // the first transaction creates the row and holds its lock for a while
+    CompletableFuture<LocationUsage> first =
+        CompletableFuture.supplyAsync(
+            () ->
+                QuarkusTransaction.requiringNew()
+                    .call(
+                        () -> {
+                          LocationUsage usage = repository.lockUsage("LOCK-TEST-001");
+                          firstLocked.countDown();
+                          Thread.sleep(300);
+                          return usage;
+                        }));
+    assertTrue(firstLocked.await(10, TimeUnit.SECONDS));
+
+    // the second one waits for it instead of failing on the duplicate row
+    LocationUsage second =
+        QuarkusTransaction.requiringNew().call(() -> repository.lockUsage("LOCK-TEST-001"));
+
+    assertEquals(0, first.get(10, TimeUnit.SECONDS).activeWarehouses);
+    assertEquals(0, second.activeWarehouses);
+    assertEquals(0, second.usedCapacity);
+    long rows =
+        QuarkusTransaction.requiringNew().call(() -> repository.count("location", "LOCK-TEST-001"));
+    assertEquals(1L, rows);
+  }
+}
@@ -0,0 +1,153 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseFilter;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSummary;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveWarehouseStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.smallrye.mutiny.Multi;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Compares the throughput of {@link WarehouseRepository} and {@link ReactiveWarehouseRepository}
+ * when {@link #CONCURRENCY} listings are in flight at once, both with a pool of 8 connections as in
+ * production. The blocking store needs a thread per listing in flight; the reactive store queues
+ * them on its pool without holding a thread. Both must return the same rows; the timings are
+ * logged for comparison.
+ *
+ * <p>Needs PostgreSQL, which the reactive client requires. Runs only when {@code
+ * benchmark.postgres.url} is set, for example {@code
+ * -Dbenchmark.postgres.url=localhost:5432/quarkus_test}, with the credentials in {@code
+ * benchmark.postgres.username} and {@code benchmark.postgres.password}.
+ */
+@QuarkusTest
+@TestProfile(ReactiveWarehouseStoreBenchmarkTest.Postgres.class)
+@EnabledIfSystemProperty(named = "benchmark.postgres.url", matches = ".+")
+public class ReactiveWarehouseStoreBenchmarkTest {
+
+  private static final Logger LOGGER =
+      Logger.getLogger(ReactiveWarehouseStoreBenchmarkTest.class.getName());
+
+  private static final int CONCURRENCY = 256;
+  private static final int REQUESTS = 20_000;
+  private static final int PAGE_SIZE = 20;
+
+  public static class Postgres implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      String url = System.getProperty("benchmark.postgres.url");
+      return Map.ofEntries(
+          Map.entry("quarkus.datasource.db-kind", "postgresql"),
+          Map.entry("quarkus.datasource.jdbc.url", "jdbc:postgresql://" + url),
+          Map.entry("quarkus.datasource.jdbc.max-size", "8"),
+          // the blocking threads queue for a connection just as the reactive listings do, rather
+          // than failing after the default 5 seconds
+          Map.entry("quarkus.datasource.jdbc.acquisition-timeout", "2M"),
+          Map.entry("quarkus.datasource.reactive.url", "postgresql://" + url),
+          Map.entry("quarkus.datasource.reactive.max-size", "8"),
+          Map.entry(
+              "quarkus.datasource.username",
+              System.getProperty("benchmark.postgres.username", "")),
+          Map.entry(
+              "quarkus.datasource.password",
+              System.getProperty("benchmark.postgres.password", "")),
+          Map.entry("quarkus.flyway.locations", "db/migration,db/postgresql,db/seed"),
+          Map.entry("quarkus.hibernate-orm.log.sql", "false"),
+          Map.entry("warehouse.api.mode", "reactive"));
+    }
+  }
+
+  @Inject WarehouseRepository blockingStore;
+
+  // looked up lazily: the reactive store only exists in builds with warehouse.api.mode=reactive,
+  // and this class is validated as a bean in every test build
+  @Inject Instance<ReactiveWarehouseStore> reactiveStores;
+
+  private ReactiveWarehouseStore reactiveStore;
+
+  @Test
+  public void compareBlockingAndReactiveListings() throws Exception {
+    reactiveStore = reactiveStores.get();
+    WarehouseFilter filter = new WarehouseFilter();
+    List<WarehouseSummary> expected =
+        QuarkusTransaction.requiringNew()
+            .call(() -> blockingStore.findActivePage(filter, null, PAGE_SIZE));
+    assertEquals(
+        ids(expected),
+        ids(reactiveStore.findActivePage(filter, null, PAGE_SIZE).await().indefinitely()));
+
+    // warm up both paths before measuring
+    int rows = expected.size();
+    runBlocking(filter, REQUESTS / 10, rows);
+    runReactive(filter, REQUESTS / 10, rows);
+
+    long blockingNanos = runBlocking(filter, REQUESTS, rows);
+    long reactiveNanos = runReactive(filter, REQUESTS, rows);
+
+    LOGGER.infof(
+        "Warehouse listing, %d requests with %d in flight: blocking %.1f requests/s,"
+            + " reactive %.1f requests/s",
+        REQUESTS,
+        CONCURRENCY,
+        REQUESTS / (blockingNanos / 1_000_000_000.0),
+        REQUESTS / (reactiveNanos / 1_000_000_000.0));
+  }
+
+  private long runBlocking(WarehouseFilter filter, int requests, int rows) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+    try {
+      long startedAt = System.nanoTime();
+      List<Future<List<WarehouseSummary>>> futures = new ArrayList<>(requests);
+      for (int i = 0; i < requests; i++) {
+        futures.add(
+            executor.submit(
+                () ->
+                    QuarkusTransaction.requiringNew()
+                        .call(() -> blockingStore.findActivePage(filter, null, PAGE_SIZE))));
+      }
+      for (Future<List<WarehouseSummary>> future : futures) {
+        assertEquals(rows, future.get(2, TimeUnit.MINUTES).size());
+      }
+      return System.nanoTime() - startedAt;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private long runReactive(WarehouseFilter filter, int requests, int rows) {
+    long startedAt = System.nanoTime();
+    List<List<WarehouseSummary>> pages =
+        Multi.createFrom()
+            .range(0, requests)
+            .onItem()
+            .transformToUni(i -> reactiveStore.findActivePage(filter, null, PAGE_SIZE))
+            .merge(CONCURRENCY)
+            .collect()
+            .asList()
+            .await()
+            .atMost(Duration.ofMinutes(2));
+    long elapsed = System.nanoTime() - startedAt;
+    pages.forEach(page -> assertEquals(rows, page.size()));
+    return elapsed;
+  }
+
+  private static List<Long> ids(List<WarehouseSummary> page) {
+    return page.stream().map(w -> w.id).toList();
+  }
+}
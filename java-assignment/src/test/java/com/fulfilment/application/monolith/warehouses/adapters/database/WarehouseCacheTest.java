@@ -0,0 +1,125 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class WarehouseCacheTest {
+
+  private final Map<String, Warehouse> database = new HashMap<>();
+  private final AtomicInteger loads = new AtomicInteger();
+  private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+  private SimpleMeterRegistry registry;
+  private WarehouseCache cache;
+
+  @BeforeEach
+  void setUp() {
+    Clock clock = Mockito.mock(Clock.class);
+    when(clock.instant()).thenAnswer(inv -> now);
+    when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+    registry = new SimpleMeterRegistry();
+    cache =
+        new WarehouseCache(registry, 2, Duration.ofMinutes(5), Duration.ofSeconds(5), clock);
+
+    database.put("MWH.001", warehouse("MWH.001", 100));
+  }
+
+  @Test
+  void shouldServeRepeatedLookupsFromCacheAndCountHitsAndMisses() {
+    Warehouse first = cache.get("MWH.001", this::load);
+    first.capacity = 1; // callers get copies and cannot change the cached warehouse
+    Warehouse second = cache.get("MWH.001", this::load);
+
+    assertEquals(1, loads.get());
+    assertEquals(100, second.capacity);
+    assertNotSame(first, second);
+    assertEquals(1.0, requests("hit"));
+    assertEquals(1.0, requests("miss"));
+  }
+
+  @Test
+  void shouldExpireNegativeLookupsSooner() {
+    assertNull(cache.get("MWH.999", this::load));
+    assertNull(cache.get("MWH.999", this::load));
+    assertEquals(1, loads.get());
+
+    database.put("MWH.999", warehouse("MWH.999", 10));
+    now = now.plusSeconds(6);
+
+    assertEquals(10, cache.get("MWH.999", this::load).capacity);
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void shouldReloadAfterInvalidationAndNotStoreOverlappingLoads() {
+    cache.get("MWH.001", this::load);
+    database.put("MWH.001", warehouse("MWH.001", 80));
+    cache.invalidate("MWH.001");
+
+    // the change is invalidated again while this lookup is loading, so its result is not kept
+    Warehouse loaded =
+        cache.get(
+            "MWH.001",
+            code -> {
+              cache.invalidate(code);
+              return load(code);
+            });
+    assertEquals(80, loaded.capacity);
+    assertEquals(0, cache.size());
+
+    assertEquals(80, cache.get("MWH.001", this::load).capacity);
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedCodes() {
+    database.put("MWH.012", warehouse("MWH.012", 50));
+    database.put("MWH.023", warehouse("MWH.023", 30));
+
+    cache.get("MWH.001", this::load);
+    cache.get("MWH.012", this::load);
+    cache.get("MWH.001", this::load);
+    cache.get("MWH.023", this::load);
+
+    assertEquals(2, cache.size());
+    loads.set(0);
+    cache.get("MWH.001", this::load);
+    assertEquals(0, loads.get());
+    cache.get("MWH.012", this::load);
+    assertEquals(1, loads.get());
+  }
+
+  private Warehouse load(String code) {
+    loads.incrementAndGet();
+    Warehouse warehouse = database.get(code);
+    return warehouse == null ? null : warehouse(code, warehouse.capacity);
+  }
+
+  private double requests(String result) {
+    return registry.get("warehouse.cache.requests").tag("result", result).counter().count();
+  }
+
+  private static Warehouse warehouse(String code, int capacity) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = code;
+    warehouse.location = "AMSTERDAM-001";
+    warehouse.capacity = capacity;
+    warehouse.stock = 0;
+    return warehouse;
+  }
+}
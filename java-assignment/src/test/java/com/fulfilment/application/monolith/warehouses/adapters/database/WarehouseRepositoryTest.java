@@ -0,0 +1,109 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseConflictException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.Cache;
+import jakarta.persistence.PersistenceException;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies the schema-level uniqueness of active business unit codes, which {@code create} reports
+ * as a conflict, and how stock movements interact with the second-level cache.
+ */
+@QuarkusTest
+public class WarehouseRepositoryTest {
+
+  @Inject WarehouseRepository repository;
+
+  @Test
+  @TestTransaction
+  public void testArchivedWarehousesMayShareTheirCode() {
+    repository.persist(warehouse("MWH.UNIQ", LocalDateTime.now()));
+    repository.persist(warehouse("MWH.UNIQ", LocalDateTime.now()));
+    repository.persist(warehouse("MWH.UNIQ", null));
+    repository.flush();
+  }
+
+  @Test
+  @TestTransaction
+  public void testSecondActiveWarehouseWithSameCodeIsRejected() {
+    repository.persist(warehouse("MWH.UNIQ", null));
+    repository.flush();
+
+    repository.persist(warehouse("MWH.UNIQ", null));
+    assertThrows(PersistenceException.class, repository::flush);
+  }
+
+  @Test
+  @TestTransaction
+  public void testCreatingASecondActiveWarehouseWithSameCodeIsAConflict() {
+    repository.create(domainWarehouse("MWH.UNIQ"));
+
+    assertThrows(
+        WarehouseConflictException.class, () -> repository.create(domainWarehouse("MWH.UNIQ")));
+  }
+
+  @Test
+  public void testStockMovementEvictsOnlyTheWarehouseItChanges() {
+    long[] ids =
+        QuarkusTransaction.requiringNew()
+            .call(
+                () -> {
+                  DbWarehouse moved = warehouse("MWH.CACHE-1", null);
+                  DbWarehouse other = warehouse("MWH.CACHE-2", null);
+                  repository.persist(moved);
+                  repository.persist(other);
+                  return new long[] {moved.id, other.id};
+                });
+    // load both into the second-level cache
+    QuarkusTransaction.requiringNew()
+        .run(() -> List.of(ids[0], ids[1]).forEach(repository::findById));
+    Cache cache = repository.getEntityManager().getEntityManagerFactory().getCache();
+    assertTrue(cache.contains(DbWarehouse.class, ids[0]));
+    assertTrue(cache.contains(DbWarehouse.class, ids[1]));
+
+    Integer stock =
+        QuarkusTransaction.requiringNew().call(() -> repository.adjustStock("MWH.CACHE-1", 4));
+
+    assertEquals(4, stock);
+    assertFalse(cache.contains(DbWarehouse.class, ids[0]));
+    assertTrue(cache.contains(DbWarehouse.class, ids[1]));
+    assertEquals(
+        4, QuarkusTransaction.requiringNew().call(() -> repository.findById(ids[0]).stock));
+
+    QuarkusTransaction.requiringNew()
+        .run(() -> repository.delete("businessUnitCode like ?1", "MWH.CACHE-%"));
+  }
+
+  private static DbWarehouse warehouse(String code, LocalDateTime archivedAt) {
+    DbWarehouse warehouse = new DbWarehouse();
+    warehouse.businessUnitCode = code;
+    warehouse.location = "AMSTERDAM-002";
+    warehouse.capacity = 10;
+    warehouse.stock = 0;
+    warehouse.createdAt = LocalDateTime.now();
+    warehouse.archivedAt = archivedAt;
+    return warehouse;
+  }
+
+  private static Warehouse domainWarehouse(String code) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = code;
+    warehouse.location = "AMSTERDAM-002";
+    warehouse.capacity = 10;
+    warehouse.stock = 0;
+    warehouse.createdAt = LocalDateTime.now();
+    return warehouse;
+  }
+}
@@ -0,0 +1,266 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the stock movement endpoint with {@code warehouse.stock.mode=write-behind}. The flush
+ * interval is long enough that only the flushes the tests request apply the journal.
+ */
+@QuarkusTest
+@TestProfile(WriteBehindStockJournalTest.WriteBehind.class)
+public class WriteBehindStockJournalTest {
+
+  private static final Logger LOGGER =
+      Logger.getLogger(WriteBehindStockJournalTest.class.getName());
+
+  private static final int THREADS = 16;
+  private static final int REQUESTS_PER_THREAD = 10;
+
+  public static class WriteBehind implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of(
+          "warehouse.stock.mode", "write-behind",
+          "warehouse.stock.flush-interval", "1H");
+    }
+  }
+
+  @Inject WarehouseRepository warehouseRepository;
+
+  // looked up lazily: the journal only exists in builds with warehouse.stock.mode=write-behind,
+  // and this class is validated as a bean in every test build
+  @Inject Instance<WriteBehindStockJournal> journals;
+
+  private WriteBehindStockJournal journal;
+
+  private final List<String> createdCodes = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    journal = journals.get();
+  }
+
+  @AfterEach
+  void tearDown() {
+    // applies what a test left in the journal before its warehouses go
+    journal.flushNow().join();
+    for (String code : createdCodes) {
+      given().when().delete("warehouse/" + code).then().statusCode(204);
+    }
+  }
+
+  @Test
+  public void testMovementsAreAnsweredAtOnceAndAppliedAtTheFlush() {
+    create("WB.FLUSH", 50);
+
+    moveStock("WB.FLUSH", 10).then().statusCode(200).body("stock", is(10));
+    moveStock("WB.FLUSH", -3).then().statusCode(200).body("stock", is(7));
+    // checked against the journaled stock, not the stock of the row
+    moveStock("WB.FLUSH", 44).then().statusCode(409);
+    moveStock("WB.FLUSH", -8).then().statusCode(409);
+    assertEquals(0, stock("WB.FLUSH"));
+    assertEquals(2, journalSize());
+
+    journal.flushNow().join();
+
+    assertEquals(7, stock("WB.FLUSH"));
+    assertEquals(0, journalSize());
+    moveStock("WB.FLUSH", 43).then().statusCode(200).body("stock", is(50));
+  }
+
+  @Test
+  public void testUnknownWarehouseIsNotFound() {
+    moveStock("WB.UNKNOWN", 1).then().statusCode(404);
+    assertEquals(0, journalSize());
+  }
+
+  @Test
+  public void testJournalLeftBehindIsApplied() {
+    create("WB.RECOVER", 100);
+    // movements a crashed instance journaled but never flushed
+    QuarkusTransaction.requiringNew()
+        .run(
+            () -> {
+              journal.persist(entry("WB.RECOVER", 30));
+              journal.persist(entry("WB.RECOVER", -5));
+              journal.persist(entry("WB.GONE", 4));
+            });
+
+    journal.flushNow().join();
+
+    assertEquals(25, stock("WB.RECOVER"));
+    assertNull(
+        QuarkusTransaction.requiringNew()
+            .call(() -> warehouseRepository.findByBusinessUnitCode("WB.GONE")));
+    assertEquals(0, journalSize());
+  }
+
+  @Test
+  public void testReplacementIsCheckedAgainstTheJournaledStock() {
+    create("WB.REPLACE", 50);
+    moveStock("WB.REPLACE", 30).then().statusCode(200);
+
+    // the row still says 0, the journal 30
+    replace("WB.REPLACE", 20, 30).then().statusCode(400);
+    assertEquals(1, journalSize());
+
+    replace("WB.REPLACE", 40, 30).then().statusCode(200);
+    assertEquals(30, stock("WB.REPLACE"));
+    assertEquals(0, journalSize());
+    moveStock("WB.REPLACE", 11).then().statusCode(409);
+    moveStock("WB.REPLACE", 10).then().statusCode(200).body("stock", is(40));
+  }
+
+  @Test
+  public void testArchivedWarehouseKeepsItsJournaledMovements() {
+    create("WB.ARCHIVE", 50);
+    moveStock("WB.ARCHIVE", 12).then().statusCode(200);
+
+    given().when().delete("warehouse/WB.ARCHIVE").then().statusCode(204);
+    createdCodes.remove("WB.ARCHIVE");
+
+    assertEquals(0, journalSize());
+    List<Warehouse> history =
+        QuarkusTransaction.requiringNew()
+            .call(() -> warehouseRepository.findHistory("WB.ARCHIVE"));
+    assertEquals(12, history.get(history.size() - 1).stock);
+  }
+
+  @Test
+  public void testConcurrentMovementsAreNeitherLostNorOverCapacity() throws Exception {
+    create("WB.STRESS", 45);
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger applied = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    Map<Integer, AtomicInteger> unexpected = new ConcurrentHashMap<>();
+
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                  int status = moveStock("WB.STRESS", 1).statusCode();
+                  if (status == 200) {
+                    applied.incrementAndGet();
+                  } else if (status == 409) {
+                    rejected.incrementAndGet();
+                  } else {
+                    unexpected.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+                  }
+                }
+                return null;
+              }));
+    }
+
+    long startedAt = System.nanoTime();
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(2, TimeUnit.MINUTES);
+    }
+    long elapsedNanos = System.nanoTime() - startedAt;
+    executor.shutdown();
+
+    int total = THREADS * REQUESTS_PER_THREAD;
+    LOGGER.infof(
+        "Write-behind stock movement stress: %d requests (%d applied, %d rejected) on %d threads"
+            + " in %d ms, %.1f requests/s",
+        total,
+        applied.get(),
+        rejected.get(),
+        THREADS,
+        TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+        total / (elapsedNanos / 1_000_000_000.0));
+
+    assertTrue(unexpected.isEmpty(), "Unexpected status codes: " + unexpected);
+    assertEquals(45, applied.get());
+    assertEquals(total - 45, rejected.get());
+
+    journal.flushNow().join();
+
+    assertEquals(45, stock("WB.STRESS"));
+  }
+
+  private void create(String code, int capacity) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = code;
+    warehouse.location = "HELMOND-001";
+    warehouse.capacity = capacity;
+    warehouse.stock = 0;
+    warehouse.createdAt = LocalDateTime.now();
+    QuarkusTransaction.requiringNew().run(() -> warehouseRepository.create(warehouse));
+    createdCodes.add(code);
+  }
+
+  private static Response replace(String code, int capacity, int stock) {
+    return given()
+        .contentType(ContentType.JSON)
+        .body(
+            "{\"businessUnitCode\": \""
+                + code
+                + "\", \"location\": \"HELMOND-001\", \"capacity\": "
+                + capacity
+                + ", \"stock\": "
+                + stock
+                + "}")
+        .when()
+        .post("warehouse/" + code + "/replacement");
+  }
+
+  private int stock(String code) {
+    return QuarkusTransaction.requiringNew()
+        .call(() -> warehouseRepository.findByBusinessUnitCode(code).stock);
+  }
+
+  private long journalSize() {
+    return QuarkusTransaction.requiringNew().call(() -> journal.count());
+  }
+
+  private static DbStockMovement entry(String code, int delta) {
+    DbStockMovement entry = new DbStockMovement();
+    entry.businessUnitCode = code;
+    entry.delta = delta;
+    entry.createdAt = LocalDateTime.now();
+    return entry;
+  }
+
+  private static Response moveStock(String code, int delta) {
+    return given()
+        .contentType(ContentType.JSON)
+        .body("{\"delta\": " + delta + "}")
+        .when()
+        .post("warehouse/" + code + "/stock-movements");
+  }
+}
@@ -0,0 +1,153 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.pagination.PageCursor;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSummary;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveWarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
+import com.warehouse.api.beans.WarehouseVersion;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.WebApplicationException;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.jboss.resteasy.reactive.RestResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ReactiveWarehouseResourceTest {
+
+  private ReactiveWarehouseStore store;
+  private ArchiveWarehouseOperation archive;
+  private ReplaceWarehouseOperation replace;
+  private ReactiveWarehouseResource resource;
+
+  @BeforeEach
+  void setUp() {
+    store = mock(ReactiveWarehouseStore.class);
+    archive = mock(ArchiveWarehouseOperation.class);
+    replace = mock(ReplaceWarehouseOperation.class);
+    resource =
+        new ReactiveWarehouseResource(
+            store, new WarehouseWriteHandler(null, archive, replace, null));
+  }
+
+  @Test
+  void shouldReturnOnePageAndTheCursorOfTheNext() {
+    when(store.findActivePage(any(), eq(null), eq(3)))
+        .thenReturn(
+            Uni.createFrom()
+                .item(
+                    List.of(
+                        summary(1L, "MWH.001"), summary(2L, "MWH.012"), summary(3L, "MWH.023"))));
+
+    RestResponse<List<com.warehouse.api.beans.Warehouse>> response =
+        resource
+            .listAllWarehousesUnits(null, 2, "AMSTERDAM-001", null, null, null, null)
+            .await()
+            .indefinitely();
+
+    assertEquals(2, response.getEntity().size());
+    assertEquals("MWH.012", response.getEntity().get(1).getBusinessUnitCode());
+    assertEquals(
+        PageCursor.encode(2L), response.getHeaderString(PageCursor.NEXT_CURSOR_HEADER));
+  }
+
+  @Test
+  void shouldOmitTheCursorOnTheLastPage() {
+    when(store.findActivePage(any(), eq(null), eq(3)))
+        .thenReturn(Uni.createFrom().item(List.of(summary(1L, "MWH.001"))));
+
+    RestResponse<List<com.warehouse.api.beans.Warehouse>> response =
+        resource
+            .listAllWarehousesUnits(null, 2, null, null, null, null, null)
+            .await()
+            .indefinitely();
+
+    assertEquals(1, response.getEntity().size());
+    assertNull(response.getHeaderString(PageCursor.NEXT_CURSOR_HEADER));
+  }
+
+  @Test
+  void shouldFailWithNotFoundForUnknownCode() {
+    when(store.findByBusinessUnitCode("MWH.999")).thenReturn(Uni.createFrom().nullItem());
+    when(store.findHistory("MWH.999")).thenReturn(Uni.createFrom().item(List.of()));
+
+    WebApplicationException lookup =
+        assertThrows(
+            WebApplicationException.class,
+            () -> resource.getAWarehouseUnitByID("MWH.999").await().indefinitely());
+    WebApplicationException history =
+        assertThrows(
+            WebApplicationException.class,
+            () -> resource.getEveryVersionOfAWarehouseUnit("MWH.999").await().indefinitely());
+
+    assertEquals(404, lookup.getResponse().getStatus());
+    assertEquals(404, history.getResponse().getStatus());
+  }
+
+  @Test
+  void shouldMapHistoryVersions() {
+    Warehouse archived = warehouse("MWH.012", 50);
+    archived.archivedAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+    when(store.findHistory("MWH.012"))
+        .thenReturn(Uni.createFrom().item(List.of(archived, warehouse("MWH.012", 80))));
+
+    List<WarehouseVersion> versions =
+        resource.getEveryVersionOfAWarehouseUnit("MWH.012").await().indefinitely();
+
+    assertEquals(2, versions.size());
+    assertEquals(50, versions.get(0).getCapacity());
+    assertNotNull(versions.get(0).getArchivedAt());
+    assertNull(versions.get(1).getArchivedAt());
+  }
+
+  @Test
+  void shouldRejectInvalidLimitBeforeQuerying() {
+    WebApplicationException e =
+        assertThrows(
+            WebApplicationException.class,
+            () -> resource.listAllWarehousesUnits(null, 0, null, null, null, null, null));
+    assertEquals(400, e.getResponse().getStatus());
+  }
+
+  @Test
+  void shouldReturnTheAssignmentCountsOfArchiveAndReplace() {
+    when(archive.archive(any())).thenReturn(4L);
+    when(replace.replace(any())).thenReturn(2L);
+
+    RestResponse<Void> archived = resource.archiveAWarehouseUnitByID("MWH.001");
+    var replacement = new com.warehouse.api.beans.Warehouse();
+    RestResponse<com.warehouse.api.beans.Warehouse> replaced =
+        resource.replaceTheCurrentActiveWarehouse("MWH.012", replacement);
+
+    assertEquals(204, archived.getStatus());
+    assertEquals("4", archived.getHeaderString(WarehouseWriteHandler.REMOVED_ASSIGNMENTS_HEADER));
+    assertEquals("MWH.012", replaced.getEntity().getBusinessUnitCode());
+    assertEquals(
+        "2", replaced.getHeaderString(WarehouseWriteHandler.CARRIED_OVER_ASSIGNMENTS_HEADER));
+  }
+
+  private static WarehouseSummary summary(Long id, String code) {
+    return new WarehouseSummary(id, code, "AMSTERDAM-001", 100, 10);
+  }
+
+  private static Warehouse warehouse(String code, int capacity) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = code;
+    warehouse.location = "AMSTERDAM-001";
+    warehouse.capacity = capacity;
+    warehouse.stock = 10;
+    warehouse.createdAt = LocalDateTime.of(2023, 7, 1, 0, 0);
+    return warehouse;
+  }
+}
@@ -0,0 +1,330 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationUsageStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fires concurrent {@code POST /warehouse} requests at a few locations so that many requests
+ * compete for the same warehouse count and capacity limits, then checks that no location ended up
+ * over its limits and reports the observed throughput. Does the same for stock movements competing
+ * for the capacity of one warehouse, and for replacements moving warehouses between two locations
+ * in opposite directions.
+ */
+@QuarkusTest
+public class WarehouseConcurrencyStressTest {
+
+  private static final Logger LOGGER =
+      Logger.getLogger(WarehouseConcurrencyStressTest.class.getName());
+
+  private static final int THREADS = 16;
+  private static final int REQUESTS_PER_THREAD = 10;
+
+  // locations no other test creates warehouses at
+  private static final List<String> LOCATIONS =
+      List.of("ZWOLLE-002", "AMSTERDAM-002", "HELMOND-001");
+
+  @Inject WarehouseRepository warehouseRepository;
+
+  @Inject LocationResolver locationResolver;
+
+  @Inject LocationUsageStore locationUsageStore;
+
+  private final List<String> createdCodes = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    // archive through the API so the usage ledger is released as well
+    for (String code : createdCodes) {
+      given().when().delete("warehouse/" + code).then().statusCode(204);
+    }
+  }
+
+  @Test
+  public void testConcurrentCreatesRespectLocationLimits() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger rejected = new AtomicInteger();
+    Map<Integer, AtomicInteger> unexpected = new ConcurrentHashMap<>();
+    List<String> created = Collections.synchronizedList(new ArrayList<>());
+
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      int thread = t;
+      Random random = new Random(t);
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                  String code = "CONC." + thread + "." + i;
+                  String location = LOCATIONS.get(random.nextInt(LOCATIONS.size()));
+                  int status = post(code, location, 10 + random.nextInt(21));
+                  if (status == 200) {
+                    created.add(code);
+                  } else if (status == 400) {
+                    rejected.incrementAndGet();
+                  } else {
+                    unexpected.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+                  }
+                }
+                return null;
+              }));
+    }
+
+    long startedAt = System.nanoTime();
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(2, TimeUnit.MINUTES);
+    }
+    long elapsedNanos = System.nanoTime() - startedAt;
+    executor.shutdown();
+    createdCodes.addAll(created);
+
+    int total = THREADS * REQUESTS_PER_THREAD;
+    LOGGER.infof(
+        "Warehouse stress: %d requests (%d created, %d rejected) on %d threads in %d ms,"
+            + " %.1f requests/s",
+        total,
+        created.size(),
+        rejected.get(),
+        THREADS,
+        TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+        total / (elapsedNanos / 1_000_000_000.0));
+
+    assertTrue(unexpected.isEmpty(), "Unexpected status codes: " + unexpected);
+    assertTrue(created.size() > 0);
+    assertInvariants();
+  }
+
+  @Test
+  public void testConcurrentStockMovementsAreNeitherLostNorOverCapacity() throws Exception {
+    // HELMOND-001 takes a single warehouse of up to 45
+    assertEquals(200, post("CONC.STOCK", "HELMOND-001", 45));
+    createdCodes.add("CONC.STOCK");
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger applied = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    Map<Integer, AtomicInteger> unexpected = new ConcurrentHashMap<>();
+
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                  int status = moveStock("CONC.STOCK", 1);
+                  if (status == 200) {
+                    applied.incrementAndGet();
+                  } else if (status == 409) {
+                    rejected.incrementAndGet();
+                  } else {
+                    unexpected.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+                  }
+                }
+                return null;
+              }));
+    }
+
+    long startedAt = System.nanoTime();
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(2, TimeUnit.MINUTES);
+    }
+    long elapsedNanos = System.nanoTime() - startedAt;
+    executor.shutdown();
+
+    int total = THREADS * REQUESTS_PER_THREAD;
+    LOGGER.infof(
+        "Stock movement stress: %d requests (%d applied, %d rejected) on %d threads in %d ms,"
+            + " %.1f requests/s",
+        total,
+        applied.get(),
+        rejected.get(),
+        THREADS,
+        TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+        total / (elapsedNanos / 1_000_000_000.0));
+
+    assertTrue(unexpected.isEmpty(), "Unexpected status codes: " + unexpected);
+    assertEquals(45, applied.get());
+    assertEquals(total - 45, rejected.get());
+    assertEquals(
+        45,
+        QuarkusTransaction.requiringNew()
+            .call(() -> warehouseRepository.findByBusinessUnitCode("CONC.STOCK").stock));
+  }
+
+  @Test
+  public void testConcurrentCreatesOfOneCodeCreateItOnce() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+
+    // every thread races for the same code at a location with room for all of them, so only
+    // the code's uniqueness decides; the losers must see a client error rather than a 500
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                int status = post("CONC.SAME", "AMSTERDAM-002", 10);
+                statuses.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+                return null;
+              }));
+    }
+
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(2, TimeUnit.MINUTES);
+    }
+    executor.shutdown();
+    if (statuses.containsKey(200)) {
+      createdCodes.add("CONC.SAME");
+    }
+
+    assertEquals(1, statuses.get(200).get(), "Statuses: " + statuses);
+    assertTrue(
+        statuses.keySet().stream().allMatch(s -> s == 200 || s == 400 || s == 409),
+        "Statuses: " + statuses);
+    assertInvariants();
+  }
+
+  @Test
+  public void testOppositeReplacementsBetweenTwoLocationsDoNotDeadlock() throws Exception {
+    // each location takes both warehouses, so every replacement is allowed
+    assertEquals(200, post("CONC.SWAP.A", "ZWOLLE-002", 10));
+    createdCodes.add("CONC.SWAP.A");
+    assertEquals(200, post("CONC.SWAP.B", "AMSTERDAM-002", 10));
+    createdCodes.add("CONC.SWAP.B");
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    CountDownLatch start = new CountDownLatch(1);
+    Map<Integer, AtomicInteger> unexpected = new ConcurrentHashMap<>();
+
+    // round by round A moves one way and B the other, so the two replacements always need the
+    // same two locations in opposite directions
+    List<Future<?>> futures = new ArrayList<>();
+    for (String[] swap :
+        List.of(
+            new String[] {"CONC.SWAP.A", "AMSTERDAM-002", "ZWOLLE-002"},
+            new String[] {"CONC.SWAP.B", "ZWOLLE-002", "AMSTERDAM-002"})) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                  int status = replace(swap[0], swap[1 + i % 2], 10);
+                  if (status != 200) {
+                    unexpected.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+                  }
+                }
+                return null;
+              }));
+    }
+
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(2, TimeUnit.MINUTES);
+    }
+    executor.shutdown();
+
+    assertTrue(unexpected.isEmpty(), "Unexpected status codes: " + unexpected);
+    assertInvariants();
+  }
+
+  private void assertInvariants() {
+    QuarkusTransaction.requiringNew()
+        .run(
+            () -> {
+              for (String identifier : LOCATIONS) {
+                Location location = locationResolver.resolveByIdentifier(identifier);
+                List<DbWarehouse> active =
+                    warehouseRepository.list("location = ?1 and archivedAt is null", identifier);
+                int capacity = active.stream().mapToInt(w -> w.capacity).sum();
+                assertTrue(
+                    active.size() <= location.maxNumberOfWarehouses,
+                    identifier + " has " + active.size() + " warehouses");
+                assertTrue(
+                    capacity <= location.maxCapacity,
+                    identifier + " uses capacity " + capacity);
+
+                LocationUsage usage = locationUsageStore.getUsage(identifier);
+                assertEquals(active.size(), usage.activeWarehouses);
+                assertEquals(capacity, usage.usedCapacity);
+              }
+            });
+  }
+
+  private static int post(String code, String location, int capacity) {
+    String body =
+        """
+        {"businessUnitCode": "%s", "location": "%s", "capacity": %d, "stock": 0}
+        """
+            .formatted(code, location, capacity);
+    return given()
+        .contentType(ContentType.JSON)
+        .body(body)
+        .when()
+        .post("warehouse")
+        .then()
+        .extract()
+        .statusCode();
+  }
+
+  private static int replace(String code, String location, int capacity) {
+    String body =
+        """
+        {"location": "%s", "capacity": %d, "stock": 0}
+        """
+            .formatted(location, capacity);
+    return given()
+        .contentType(ContentType.JSON)
+        .body(body)
+        .when()
+        .post("warehouse/" + code + "/replacement")
+        .then()
+        .extract()
+        .statusCode();
+  }
+
+  private static int moveStock(String code, int delta) {
+    return given()
+        .contentType(ContentType.JSON)
+        .body("{\"delta\": " + delta + "}")
+        .when()
+        .post("warehouse/" + code + "/stock-movements")
+        .then()
+        .extract()
+        .statusCode();
+  }
+}
@@ -2,11 +2,25 @@ package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.containsString;
-
+import static org.hamcrest.CoreMatchers.everyItem;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.hamcrest.Matchers.matchesPattern;
 import static org.hamcrest.core.IsNot.not;
 
+import com.fulfilment.application.monolith.pagination.PageCursor;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -121,7 +135,12 @@ public class WarehouseEndpointTest {
   @Test
   @Order(8)
   public void testArchiveWarehouse() {
-    given().when().delete(PATH + "/MWH.023").then().statusCode(204);
+    given()
+        .when()
+        .delete(PATH + "/MWH.023")
+        .then()
+        .statusCode(204)
+        .header("X-Removed-Assignments", matchesPattern("\\d+"));
 
     // Verify it's no longer listed
     given()
@@ -158,6 +177,7 @@ public class WarehouseEndpointTest {
         .post(PATH + "/MWH.012/replacement")
         .then()
         .statusCode(200)
+        .header("X-Carried-Over-Assignments", matchesPattern("\\d+"))
         .body(containsString("MWH.012"), containsString("AMSTERDAM-001"));
   }
 
@@ -322,4 +342,142 @@ public class WarehouseEndpointTest {
         .statusCode(400)
         .body(containsString("not a valid location"));
   }
+
+  @Test
+  @Order(18)
+  public void testListWarehousesPageByPage() {
+    List<String> codes = new ArrayList<>();
+    String cursor = null;
+    do {
+      var request = given().queryParam("location", "AMSTERDAM-001").queryParam("limit", 1);
+      if (cursor != null) {
+        request.queryParam("cursor", cursor);
+      }
+      Response response = request.when().get(PATH).then().statusCode(200).extract().response();
+      List<String> page = response.jsonPath().getList("businessUnitCode");
+      assertTrue(page.size() <= 1);
+      codes.addAll(page);
+      cursor = response.header(PageCursor.NEXT_CURSOR_HEADER);
+    } while (cursor != null);
+
+    assertTrue(codes.containsAll(List.of("MWH.012", "MWH.100")), codes.toString());
+    assertEquals(codes.size(), new HashSet<>(codes).size());
+  }
+
+  @Test
+  @Order(19)
+  public void testListWarehousesFilteredByStockAndFreeCapacity() {
+    given()
+        .queryParam("location", "AMSTERDAM-001")
+        .queryParam("minStock", 5)
+        .queryParam("maxStock", 5)
+        .when()
+        .get(PATH)
+        .then()
+        .statusCode(200)
+        .body("businessUnitCode", hasItem("MWH.100"))
+        .body("stock", everyItem(is(5)))
+        .body("location", everyItem(is("AMSTERDAM-001")));
+
+    // MWH.600 has no stock, so all of its capacity (30) is free
+    given()
+        .queryParam("minFreeCapacity", 30)
+        .when()
+        .get(PATH)
+        .then()
+        .statusCode(200)
+        .body("businessUnitCode", hasItem("MWH.600"))
+        .body("businessUnitCode", not(hasItem("MWH.100")));
+  }
+
+  @Test
+  @Order(20)
+  public void testListWarehousesWithInvalidCursorOrLimitFails() {
+    given().queryParam("cursor", "not-a-cursor").when().get(PATH).then().statusCode(400);
+    given().queryParam("limit", 0).when().get(PATH).then().statusCode(400);
+  }
+
+  @Test
+  @Order(21)
+  public void testWarehouseHistoryListsReplacedVersions() {
+    // MWH.012 was replaced in testReplaceWarehouse
+    given()
+        .when()
+        .get(PATH + "/MWH.012/history")
+        .then()
+        .statusCode(200)
+        .body("size()", is(2))
+        .body("[0].capacity", is(50))
+        .body("[0].archivedAt", notNullValue())
+        .body("[1].capacity", is(80))
+        .body("[1].archivedAt", nullValue());
+
+    given().when().get(PATH + "/MWH.999/history").then().statusCode(404);
+  }
+
+  @Test
+  @Order(22)
+  public void testListWarehousesAsOfPastInstant() {
+    // seeded: MWH.023 created 2021-02-01, MWH.012 2023-07-01, MWH.001 2024-07-01
+    given()
+        .queryParam("asOf", "2024-01-01T00:00:00")
+        .when()
+        .get(PATH)
+        .then()
+        .statusCode(200)
+        .body("businessUnitCode", hasItems("MWH.012", "MWH.023"))
+        .body("businessUnitCode", not(hasItem("MWH.001")))
+        .body("businessUnitCode", not(hasItem("MWH.100")))
+        .body("find { it.businessUnitCode == 'MWH.012' }.capacity", is(50));
+
+    given().queryParam("asOf", "yesterday").when().get(PATH).then().statusCode(400);
+  }
+
+  @Test
+  @Order(23)
+  public void testRepeatedLookupsAreServedFromCache() {
+    given().when().get(PATH + "/MWH.012").then().statusCode(200);
+    given().when().get(PATH + "/MWH.012").then().statusCode(200);
+
+    given()
+        .when()
+        .get("q/metrics")
+        .then()
+        .statusCode(200)
+        .body(containsString("warehouse_cache_requests_total{result=\"hit\"}"))
+        .body(containsString("warehouse_cache_size"));
+  }
+
+  @Test
+  @Order(24)
+  public void testStockMovementsAdjustStockWithinCapacity() {
+    // MWH.012 was replaced in testReplaceWarehouse with capacity=80, stock=5, and is cached by now
+    given().when().get(PATH + "/MWH.012").then().statusCode(200).body("stock", is(5));
+
+    moveStock("MWH.012", 10).then().statusCode(200).body("stock", is(15));
+    given().when().get(PATH + "/MWH.012").then().statusCode(200).body("stock", is(15));
+
+    // neither below 0 nor above the capacity, and a rejected movement changes nothing
+    moveStock("MWH.012", -16).then().statusCode(409);
+    moveStock("MWH.012", 66).then().statusCode(409);
+    moveStock("MWH.012", 65).then().statusCode(200).body("stock", is(80));
+    moveStock("MWH.012", -75).then().statusCode(200).body("stock", is(5));
+
+    moveStock("MWH.999", 1).then().statusCode(404);
+    given()
+        .contentType(ContentType.JSON)
+        .body("{}")
+        .when()
+        .post(PATH + "/MWH.012/stock-movements")
+        .then()
+        .statusCode(400);
+  }
+
+  private static Response moveStock(String code, int delta) {
+    return given()
+        .contentType(ContentType.JSON)
+        .body("{\"delta\": " + delta + "}")
+        .when()
+        .post(PATH + "/" + code + "/stock-movements");
+  }
 }
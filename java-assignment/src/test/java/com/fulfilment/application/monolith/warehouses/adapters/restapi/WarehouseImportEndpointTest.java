@@ -0,0 +1,104 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+
+import io.quarkus.test.junit.QuarkusTest;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+@QuarkusTest
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class WarehouseImportEndpointTest {
+
+  private static final String PATH = "warehouse/import";
+
+  @Test
+  @Order(1)
+  public void testImportCsvReportsRowErrors() {
+    String csv =
+        """
+        businessUnitCode,location,capacity,stock
+        IMP.001,ZWOLLE-002,20,5
+        IMP.002,ZWOLLE-002,20,5
+        IMP.003,ZWOLLE-002,5,1
+        IMP.001,HELMOND-001,10,1
+
+        IMP.004,HELMOND-001,abc,1
+        """;
+
+    given()
+        .contentType(WarehouseImportResource.TEXT_CSV)
+        .body(csv)
+        .when()
+        .post(PATH)
+        .then()
+        .statusCode(200)
+        .body("totalRows", is(5))
+        .body("importedRows", is(2))
+        .body("failedRows", is(3))
+        .body("errors.line", contains(4, 5, 7))
+        .body("errors[0].message", containsString("Maximum number of warehouses"))
+        .body("errors[1].message", containsString("already exists"))
+        .body("errors[2].message", containsString("must be integers"));
+
+    given().when().get("warehouse/IMP.002").then().statusCode(200);
+    given()
+        .when()
+        .get("location/ZWOLLE-002/usage")
+        .then()
+        .statusCode(200)
+        .body("activeWarehouses", is(2))
+        .body("usedCapacity", is(40));
+  }
+
+  @Test
+  @Order(2)
+  public void testImportNdjson() {
+    String ndjson =
+        """
+        {"businessUnitCode": "IMP.005", "location": "HELMOND-001", "capacity": 40, "stock": 4}
+        not json
+        """;
+
+    given()
+        .contentType(WarehouseImportResource.APPLICATION_NDJSON)
+        .body(ndjson.getBytes(StandardCharsets.UTF_8))
+        .when()
+        .post(PATH)
+        .then()
+        .statusCode(200)
+        .body("importedRows", is(1))
+        .body("failedRows", is(1))
+        .body("errors[0].line", is(2))
+        .body("errors[0].message", containsString("Invalid JSON"));
+
+    given().when().get("warehouse/IMP.005").then().statusCode(200).body(containsString("40"));
+  }
+
+  @Test
+  @Order(3)
+  public void testImportCsvWithoutRequiredColumnFails() {
+    given()
+        .contentType(WarehouseImportResource.TEXT_CSV)
+        .body("businessUnitCode,location\nIMP.006,HELMOND-001\n")
+        .when()
+        .post(PATH)
+        .then()
+        .statusCode(400);
+  }
+
+  @Test
+  @Order(4)
+  public void testArchiveImportedWarehouses() {
+    for (String code : new String[] {"IMP.001", "IMP.002", "IMP.005"}) {
+      given().when().delete("warehouse/" + code).then().statusCode(204);
+    }
+    given().when().get("location/ZWOLLE-002/usage").then().body("activeWarehouses", is(0));
+  }
+}
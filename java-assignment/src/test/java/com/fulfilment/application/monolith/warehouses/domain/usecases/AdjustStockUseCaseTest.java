@@ -0,0 +1,64 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class AdjustStockUseCaseTest {
+
+  private WarehouseStore warehouseStore;
+  private AdjustStockUseCase useCase;
+
+  @BeforeEach
+  void setUp() {
+    warehouseStore = Mockito.mock(WarehouseStore.class);
+    useCase = new AdjustStockUseCase(warehouseStore);
+  }
+
+  @Test
+  void shouldReturnTheNewStock() {
+    when(warehouseStore.adjustStock("MWH.001", -4)).thenReturn(6);
+
+    assertEquals(6, useCase.adjust("MWH.001", -4));
+    verify(warehouseStore, never()).findByBusinessUnitCode(any());
+    verify(warehouseStore, never()).modifyActive(any(), any());
+  }
+
+  @Test
+  void shouldFailWhenWarehouseNotFound() {
+    when(warehouseStore.adjustStock("MWH.999", 1)).thenReturn(null);
+
+    WarehouseNotFoundException ex =
+        assertThrows(WarehouseNotFoundException.class, () -> useCase.adjust("MWH.999", 1));
+
+    assertTrue(ex.getMessage().contains("No active warehouse found"));
+  }
+
+  @Test
+  void shouldFailWhenStockWouldLeaveItsRange() {
+    Warehouse existing = new Warehouse();
+    existing.businessUnitCode = "MWH.001";
+    existing.capacity = 100;
+    existing.stock = 10;
+    when(warehouseStore.adjustStock("MWH.001", 91)).thenReturn(null);
+    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(existing);
+
+    WarehouseValidationException ex =
+        assertThrows(WarehouseValidationException.class, () -> useCase.adjust("MWH.001", 91));
+
+    assertTrue(!(ex instanceof WarehouseNotFoundException));
+    assertTrue(ex.getMessage().contains("outside 0 to its capacity (100)"), ex.getMessage());
+  }
+}
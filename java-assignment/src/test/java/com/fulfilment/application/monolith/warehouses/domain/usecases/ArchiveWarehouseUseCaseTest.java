@@ -1,30 +1,35 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseAssignmentStore;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import java.time.LocalDateTime;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 public class ArchiveWarehouseUseCaseTest {
 
   private WarehouseStore warehouseStore;
+  private WarehouseAssignmentStore assignmentStore;
   private ArchiveWarehouseUseCase useCase;
 
   @BeforeEach
   void setUp() {
     warehouseStore = Mockito.mock(WarehouseStore.class);
-    useCase = new ArchiveWarehouseUseCase(warehouseStore);
+    assignmentStore = Mockito.mock(WarehouseAssignmentStore.class);
+    useCase = new ArchiveWarehouseUseCase(warehouseStore, assignmentStore);
   }
 
   @Test
@@ -36,24 +41,21 @@ public class ArchiveWarehouseUseCaseTest {
     existing.stock = 10;
     existing.createdAt = LocalDateTime.of(2024, 7, 1, 0, 0);
 
-    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(existing);
+    stubActive(existing);
 
     Warehouse toArchive = new Warehouse();
     toArchive.businessUnitCode = "MWH.001";
 
     useCase.archive(toArchive);
 
-    ArgumentCaptor<Warehouse> captor = ArgumentCaptor.forClass(Warehouse.class);
-    verify(warehouseStore).update(captor.capture());
-
-    Warehouse archived = captor.getValue();
-    assertNotNull(archived.archivedAt);
+    verify(warehouseStore).modifyActive(eq("MWH.001"), any());
+    verify(warehouseStore, never()).findByBusinessUnitCode(any());
+    verify(warehouseStore, never()).update(any());
+    assertNotNull(existing.archivedAt);
   }
 
   @Test
   void shouldFailWhenWarehouseNotFound() {
-    when(warehouseStore.findByBusinessUnitCode("MWH.999")).thenReturn(null);
-
     Warehouse toArchive = new Warehouse();
     toArchive.businessUnitCode = "MWH.999";
 
@@ -62,6 +64,25 @@ public class ArchiveWarehouseUseCaseTest {
 
     assert ex.getMessage().contains("No active warehouse found");
     verify(warehouseStore, never()).update(any());
+    verify(assignmentStore, never()).removeByWarehouse(any());
+  }
+
+  @Test
+  void shouldRemoveAssignmentsOfArchivedWarehouse() {
+    Warehouse existing = new Warehouse();
+    existing.businessUnitCode = "MWH.001";
+    existing.location = "ZWOLLE-001";
+    existing.capacity = 100;
+    existing.stock = 10;
+
+    stubActive(existing);
+    when(assignmentStore.removeByWarehouse("MWH.001")).thenReturn(4L);
+
+    Warehouse toArchive = new Warehouse();
+    toArchive.businessUnitCode = "MWH.001";
+
+    assertEquals(4L, useCase.archive(toArchive));
+    verify(assignmentStore).removeByWarehouse("MWH.001");
   }
 
   @Test
@@ -73,7 +94,7 @@ public class ArchiveWarehouseUseCaseTest {
     existing.stock = 5;
     existing.createdAt = LocalDateTime.of(2023, 7, 1, 0, 0);
 
-    when(warehouseStore.findByBusinessUnitCode("MWH.012")).thenReturn(existing);
+    stubActive(existing);
 
     Warehouse toArchive = new Warehouse();
     toArchive.businessUnitCode = "MWH.012";
@@ -86,4 +107,15 @@ public class ArchiveWarehouseUseCaseTest {
     assert !existing.archivedAt.isBefore(before);
     assert !existing.archivedAt.isAfter(after);
   }
+
+  /** Lets the store apply the use case's change to {@code existing}, as the real adapter does. */
+  private void stubActive(Warehouse existing) {
+    when(warehouseStore.modifyActive(eq(existing.businessUnitCode), any()))
+        .thenAnswer(
+            invocation -> {
+              Consumer<Warehouse> change = invocation.getArgument(1);
+              change.accept(existing);
+              return existing;
+            });
+  }
 }
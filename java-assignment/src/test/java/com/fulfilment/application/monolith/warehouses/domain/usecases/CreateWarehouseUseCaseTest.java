@@ -10,11 +10,11 @@ import static org.mockito.Mockito.when;
 
 import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationUsageStore;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
-import java.util.Collections;
-import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -23,13 +23,15 @@ public class CreateWarehouseUseCaseTest {
 
   private WarehouseStore warehouseStore;
   private LocationResolver locationResolver;
+  private LocationUsageStore locationUsageStore;
   private CreateWarehouseUseCase useCase;
 
   @BeforeEach
   void setUp() {
     warehouseStore = Mockito.mock(WarehouseStore.class);
     locationResolver = Mockito.mock(LocationResolver.class);
-    useCase = new CreateWarehouseUseCase(warehouseStore, locationResolver);
+    locationUsageStore = Mockito.mock(LocationUsageStore.class);
+    useCase = new CreateWarehouseUseCase(warehouseStore, locationResolver, locationUsageStore);
   }
 
   @Test
@@ -39,8 +41,7 @@ public class CreateWarehouseUseCaseTest {
     when(warehouseStore.findByBusinessUnitCode("MWH.100")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
         .thenReturn(new Location("AMSTERDAM-001", 5, 100));
-    when(warehouseStore.findActiveByLocation("AMSTERDAM-001"))
-        .thenReturn(Collections.emptyList());
+    when(locationUsageStore.lockUsage("AMSTERDAM-001")).thenReturn(usageOf("AMSTERDAM-001"));
 
     useCase.create(warehouse);
 
@@ -87,8 +88,8 @@ public class CreateWarehouseUseCaseTest {
 
     // One warehouse already exists at TILBURG-001 (max is 1)
     Warehouse existingAtLocation = createWarehouse("MWH.023", "TILBURG-001", 30, 27);
-    when(warehouseStore.findActiveByLocation("TILBURG-001"))
-        .thenReturn(List.of(existingAtLocation));
+    when(locationUsageStore.lockUsage("TILBURG-001"))
+        .thenReturn(usageOf("TILBURG-001", existingAtLocation));
 
     WarehouseValidationException ex =
         assertThrows(WarehouseValidationException.class, () -> useCase.create(warehouse));
@@ -106,8 +107,8 @@ public class CreateWarehouseUseCaseTest {
         .thenReturn(new Location("ZWOLLE-001", 2, 40));
     // Existing warehouse uses 30 of 40 max capacity
     Warehouse existingAtLocation = createWarehouse("MWH.001", "ZWOLLE-001", 30, 10);
-    when(warehouseStore.findActiveByLocation("ZWOLLE-001"))
-        .thenReturn(List.of(existingAtLocation));
+    when(locationUsageStore.lockUsage("ZWOLLE-001"))
+        .thenReturn(usageOf("ZWOLLE-001", existingAtLocation));
 
     WarehouseValidationException ex =
         assertThrows(WarehouseValidationException.class, () -> useCase.create(warehouse));
@@ -123,8 +124,7 @@ public class CreateWarehouseUseCaseTest {
     when(warehouseStore.findByBusinessUnitCode("MWH.100")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
         .thenReturn(new Location("AMSTERDAM-001", 5, 100));
-    when(warehouseStore.findActiveByLocation("AMSTERDAM-001"))
-        .thenReturn(Collections.emptyList());
+    when(locationUsageStore.lockUsage("AMSTERDAM-001")).thenReturn(usageOf("AMSTERDAM-001"));
 
     WarehouseValidationException ex =
         assertThrows(WarehouseValidationException.class, () -> useCase.create(warehouse));
@@ -140,8 +140,7 @@ public class CreateWarehouseUseCaseTest {
     when(warehouseStore.findByBusinessUnitCode("MWH.100")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
         .thenReturn(new Location("AMSTERDAM-001", 5, 100));
-    when(warehouseStore.findActiveByLocation("AMSTERDAM-001"))
-        .thenReturn(Collections.emptyList());
+    when(locationUsageStore.lockUsage("AMSTERDAM-001")).thenReturn(usageOf("AMSTERDAM-001"));
 
     useCase.create(warehouse);
 
@@ -158,8 +157,8 @@ public class CreateWarehouseUseCaseTest {
 
     Warehouse existing1 = createWarehouse("MWH.001", "AMSTERDAM-001", 40, 10);
     Warehouse existing2 = createWarehouse("MWH.002", "AMSTERDAM-001", 20, 5);
-    when(warehouseStore.findActiveByLocation("AMSTERDAM-001"))
-        .thenReturn(List.of(existing1, existing2));
+    when(locationUsageStore.lockUsage("AMSTERDAM-001"))
+        .thenReturn(usageOf("AMSTERDAM-001", existing1, existing2));
 
     useCase.create(warehouse);
 
@@ -177,8 +176,7 @@ public class CreateWarehouseUseCaseTest {
     when(warehouseStore.findByBusinessUnitCode("MWH.NULL")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
         .thenReturn(new Location("AMSTERDAM-001", 5, 100));
-    when(warehouseStore.findActiveByLocation("AMSTERDAM-001"))
-        .thenReturn(Collections.emptyList());
+    when(locationUsageStore.lockUsage("AMSTERDAM-001")).thenReturn(usageOf("AMSTERDAM-001"));
 
     useCase.create(warehouse);
 
@@ -197,8 +195,8 @@ public class CreateWarehouseUseCaseTest {
 
     // Existing warehouse uses 60 of 100 capacity, new one uses 40 (exact fit)
     Warehouse existing = createWarehouse("MWH.001", "AMSTERDAM-001", 60, 10);
-    when(warehouseStore.findActiveByLocation("AMSTERDAM-001"))
-        .thenReturn(List.of(existing));
+    when(locationUsageStore.lockUsage("AMSTERDAM-001"))
+        .thenReturn(usageOf("AMSTERDAM-001", existing));
 
     useCase.create(warehouse);
 
@@ -212,8 +210,7 @@ public class CreateWarehouseUseCaseTest {
     when(warehouseStore.findByBusinessUnitCode("MWH.FULL")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
         .thenReturn(new Location("AMSTERDAM-001", 5, 100));
-    when(warehouseStore.findActiveByLocation("AMSTERDAM-001"))
-        .thenReturn(Collections.emptyList());
+    when(locationUsageStore.lockUsage("AMSTERDAM-001")).thenReturn(usageOf("AMSTERDAM-001"));
 
     useCase.create(warehouse);
 
@@ -228,4 +225,12 @@ public class CreateWarehouseUseCaseTest {
     w.stock = stock;
     return w;
   }
+
+  private LocationUsage usageOf(String location, Warehouse... active) {
+    int capacity = 0;
+    for (Warehouse w : active) {
+      capacity += w.capacity;
+    }
+    return new LocationUsage(location, active.length, capacity);
+  }
 }
@@ -0,0 +1,201 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportReport;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportRow;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+
+public class ImportWarehousesUseCaseTest {
+
+  private WarehouseStore warehouseStore;
+  private LocationResolver locationResolver;
+  // the usage ledger behind the mocked store
+  private Map<String, LocationUsage> usage;
+  private ImportWarehousesUseCase useCase;
+
+  @BeforeEach
+  void setUp() {
+    warehouseStore = Mockito.mock(WarehouseStore.class);
+    locationResolver = Mockito.mock(LocationResolver.class);
+    useCase = new ImportWarehousesUseCase(warehouseStore, locationResolver, 2);
+
+    usage = new HashMap<>();
+    usage.put("AMSTERDAM-001", new LocationUsage("AMSTERDAM-001", 1, 30));
+    when(warehouseStore.findActiveByBusinessUnitCodes(any())).thenReturn(List.of());
+    when(warehouseStore.createAll(any(), any())).thenAnswer(this::createAll);
+    when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+        .thenReturn(new Location("AMSTERDAM-001", 3, 100));
+  }
+
+  @Test
+  void shouldCheckLocationLimitsAgainstRunningTotals() {
+    WarehouseImportReport report =
+        useCase.importWarehouses(
+            rows(
+                warehouse("IMP.001", "AMSTERDAM-001", 40, 0),
+                warehouse("IMP.002", "AMSTERDAM-001", 40, 0), // 110 > 100
+                warehouse("IMP.003", "AMSTERDAM-001", 20, 0),
+                warehouse("IMP.004", "AMSTERDAM-001", 5, 0))); // 4th warehouse, max is 3
+
+    assertEquals(4, report.totalRows);
+    assertEquals(2, report.importedRows);
+    assertEquals(2, report.failedRows);
+    assertEquals(2, report.chunks);
+    assertTrue(report.errors.get(0).message.contains("would exceed the maximum capacity"));
+    assertEquals(2, report.errors.get(0).line);
+    assertTrue(report.errors.get(1).message.contains("Maximum number of warehouses"));
+    assertEquals("IMP.004", report.errors.get(1).businessUnitCode);
+
+    verify(warehouseStore, times(2)).createAll(any(), any());
+  }
+
+  @Test
+  void shouldCheckLocationLimitsAgainstTheUsageLockedForEachChunk() {
+    usage.put("AMSTERDAM-001", new LocationUsage("AMSTERDAM-001", 0, 0));
+    doAnswer(
+            invocation -> {
+              List<Warehouse> created = createAll(invocation);
+              // a create that commits between the first chunk and the second
+              usage.get("AMSTERDAM-001").activeWarehouses++;
+              usage.get("AMSTERDAM-001").usedCapacity += 20;
+              return created;
+            })
+        .when(warehouseStore)
+        .createAll(any(), any());
+
+    WarehouseImportReport report =
+        useCase.importWarehouses(
+            rows(
+                warehouse("IMP.001", "AMSTERDAM-001", 10, 0),
+                warehouse("IMP.002", "AMSTERDAM-001", 10, 0),
+                warehouse("IMP.003", "AMSTERDAM-001", 5, 0))); // 4th warehouse, max is 3
+
+    assertEquals(2, report.importedRows);
+    assertEquals(1, report.failedRows);
+    assertTrue(report.errors.get(0).message.contains("Maximum number of warehouses"));
+  }
+
+  @Test
+  void shouldRejectExistingAndRepeatedBusinessUnitCodes() {
+    when(warehouseStore.findActiveByBusinessUnitCodes(any()))
+        .thenReturn(List.of(warehouse("MWH.012", "AMSTERDAM-001", 50, 5)));
+
+    WarehouseImportReport report =
+        useCase.importWarehouses(
+            rows(
+                warehouse("MWH.012", "AMSTERDAM-001", 10, 0),
+                warehouse("IMP.001", "AMSTERDAM-001", 10, 0),
+                warehouse("IMP.001", "AMSTERDAM-001", 10, 0)));
+
+    assertEquals(1, report.importedRows);
+    assertEquals(2, report.failedRows);
+    report.errors.forEach(e -> assertTrue(e.message.contains("already exists")));
+    assertEquals(List.of(1L, 3L), report.errors.stream().map(e -> e.line).toList());
+  }
+
+  @Test
+  void shouldReportInvalidRowsAndUnknownLocations() {
+    List<WarehouseImportRow> rows = new ArrayList<>();
+    rows.add(WarehouseImportRow.invalid(1, "capacity is required."));
+    rows.add(WarehouseImportRow.parsed(2, warehouse("IMP.001", "NOWHERE-001", 10, 0)));
+    rows.add(WarehouseImportRow.parsed(3, warehouse("IMP.002", "AMSTERDAM-001", 10, 20)));
+
+    WarehouseImportReport report = useCase.importWarehouses(rows.iterator());
+
+    assertEquals(3, report.totalRows);
+    assertEquals(0, report.importedRows);
+    assertEquals(3, report.failedRows);
+    assertNull(report.errors.get(0).businessUnitCode);
+    assertTrue(report.errors.get(1).message.contains("not a valid location"));
+    assertTrue(report.errors.get(2).message.contains("cannot exceed warehouse capacity"));
+  }
+
+  @Test
+  void shouldFailOnlyTheChunkTheStoreRejects() {
+    doThrow(new IllegalStateException("unique constraint"))
+        .doAnswer(this::createAll)
+        .when(warehouseStore)
+        .createAll(any(), any());
+
+    WarehouseImportReport report =
+        useCase.importWarehouses(
+            rows(
+                warehouse("IMP.001", "AMSTERDAM-001", 30, 0),
+                warehouse("IMP.002", "AMSTERDAM-001", 30, 0),
+                warehouse("IMP.001", "AMSTERDAM-001", 30, 0),
+                warehouse("IMP.002", "AMSTERDAM-001", 30, 0)));
+
+    // the first chunk's capacity and codes are released, so the retry in the second chunk fits
+    assertEquals(2, report.importedRows);
+    assertEquals(2, report.failedRows);
+    assertTrue(report.errors.get(0).message.contains("unique constraint"));
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<Warehouse>> captor = ArgumentCaptor.forClass(List.class);
+    verify(warehouseStore, times(2)).createAll(captor.capture(), any());
+    assertEquals(2, captor.getAllValues().get(1).size());
+  }
+
+  /** Admits the warehouses against {@link #usage} and adds those admitted to it. */
+  private List<Warehouse> createAll(InvocationOnMock invocation) {
+    List<Warehouse> warehouses = invocation.getArgument(0);
+    Function<Map<String, LocationUsage>, List<Warehouse>> admit = invocation.getArgument(1);
+    Map<String, LocationUsage> locked = new TreeMap<>();
+    for (Warehouse w : warehouses) {
+      LocationUsage current = usage.getOrDefault(w.location, new LocationUsage(w.location, 0, 0));
+      locked.put(
+          w.location,
+          new LocationUsage(w.location, current.activeWarehouses, current.usedCapacity));
+    }
+    List<Warehouse> admitted = admit.apply(locked);
+    for (Warehouse w : admitted) {
+      LocationUsage current =
+          usage.computeIfAbsent(w.location, l -> new LocationUsage(l, 0, 0));
+      current.activeWarehouses++;
+      current.usedCapacity += w.capacity;
+    }
+    return admitted;
+  }
+
+  private static Iterator<WarehouseImportRow> rows(Warehouse... warehouses) {
+    List<WarehouseImportRow> rows = new ArrayList<>();
+    for (Warehouse w : warehouses) {
+      rows.add(WarehouseImportRow.parsed(rows.size() + 1, w));
+    }
+    return rows.iterator();
+  }
+
+  private static Warehouse warehouse(String buCode, String location, int capacity, int stock) {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = buCode;
+    w.location = location;
+    w.capacity = capacity;
+    w.stock = stock;
+    return w;
+  }
+}
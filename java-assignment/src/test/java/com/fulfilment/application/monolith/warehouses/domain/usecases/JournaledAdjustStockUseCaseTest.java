@@ -0,0 +1,80 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseUnavailableException;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockMovementJournal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class JournaledAdjustStockUseCaseTest {
+
+  private StockMovementJournal journal;
+  private JournaledAdjustStockUseCase useCase;
+
+  @BeforeEach
+  void setUp() {
+    journal = Mockito.mock(StockMovementJournal.class);
+    useCase = new JournaledAdjustStockUseCase(journal, Duration.ofMillis(50));
+  }
+
+  @Test
+  void shouldReturnTheStockAfterTheMovement() {
+    when(journal.append("MWH.001", -4)).thenReturn(CompletableFuture.completedFuture(6));
+
+    assertEquals(6, useCase.adjust("MWH.001", -4));
+  }
+
+  @Test
+  void shouldRethrowTheRefusal() {
+    WarehouseNotFoundException refusal = new WarehouseNotFoundException("not found");
+    when(journal.append("MWH.999", 1)).thenReturn(CompletableFuture.failedFuture(refusal));
+
+    assertSame(
+        refusal,
+        assertThrows(WarehouseNotFoundException.class, () -> useCase.adjust("MWH.999", 1)));
+  }
+
+  @Test
+  void shouldPassOtherFailuresOn() {
+    when(journal.append("MWH.001", 1))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("stopped")));
+
+    assertThrows(IllegalStateException.class, () -> useCase.adjust("MWH.001", 1));
+  }
+
+  @Test
+  void shouldWithdrawAMovementNotJournaledInTime() {
+    CompletableFuture<Integer> queued = new CompletableFuture<>();
+    when(journal.append("MWH.001", 1)).thenReturn(queued);
+
+    assertThrows(WarehouseUnavailableException.class, () -> useCase.adjust("MWH.001", 1));
+    assertTrue(queued.isCancelled());
+  }
+
+  @Test
+  void shouldWaitOnceMoreForAMovementAlreadyTaken() {
+    // the journal refuses the cancellation and answers shortly after
+    CompletableFuture<Integer> taken =
+        new CompletableFuture<>() {
+          @Override
+          public boolean cancel(boolean mayInterruptIfRunning) {
+            CompletableFuture.delayedExecutor(10, TimeUnit.MILLISECONDS)
+                .execute(() -> complete(7));
+            return false;
+          }
+        };
+    when(journal.append("MWH.001", 1)).thenReturn(taken);
+
+    assertEquals(7, useCase.adjust("MWH.001", 1));
+  }
+}
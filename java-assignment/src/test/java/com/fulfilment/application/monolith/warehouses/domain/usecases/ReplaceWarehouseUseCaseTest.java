@@ -1,36 +1,46 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationUsageStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseAssignmentStore;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.List;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 public class ReplaceWarehouseUseCaseTest {
 
   private WarehouseStore warehouseStore;
   private LocationResolver locationResolver;
+  private LocationUsageStore locationUsageStore;
+  private WarehouseAssignmentStore assignmentStore;
   private ReplaceWarehouseUseCase useCase;
 
   @BeforeEach
   void setUp() {
     warehouseStore = Mockito.mock(WarehouseStore.class);
     locationResolver = Mockito.mock(LocationResolver.class);
-    useCase = new ReplaceWarehouseUseCase(warehouseStore, locationResolver);
+    locationUsageStore = Mockito.mock(LocationUsageStore.class);
+    assignmentStore = Mockito.mock(WarehouseAssignmentStore.class);
+    useCase = new ReplaceWarehouseUseCase(
+            warehouseStore, locationResolver, locationUsageStore, assignmentStore);
   }
 
   @Test
@@ -38,34 +48,35 @@ public class ReplaceWarehouseUseCaseTest {
     Warehouse existing = createWarehouse("MWH.001", "ZWOLLE-001", 100, 10);
     existing.createdAt = LocalDateTime.of(2024, 7, 1, 0, 0);
 
-    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(existing);
+    stubActive(existing);
     when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
         .thenReturn(new Location("AMSTERDAM-001", 5, 100));
-    when(warehouseStore.findActiveByLocation("AMSTERDAM-001"))
-        .thenReturn(Collections.emptyList());
+    when(locationUsageStore.lockUsage("AMSTERDAM-001")).thenReturn(usageOf("AMSTERDAM-001"));
+
+    when(assignmentStore.countByWarehouse("MWH.001")).thenReturn(3L);
 
     Warehouse newWarehouse = createWarehouse("MWH.001", "AMSTERDAM-001", 50, 10);
 
-    useCase.replace(newWarehouse);
+    // Assignments follow the business unit code and are carried over, not removed
+    assertEquals(3L, useCase.replace(newWarehouse));
 
     // Should archive old warehouse and create new one
-    verify(warehouseStore).update(existing);
+    verify(warehouseStore).modifyActive(eq("MWH.001"), any());
+    verify(warehouseStore, never()).findByBusinessUnitCode(any());
     verify(warehouseStore).create(newWarehouse);
+    verify(assignmentStore, never()).removeByWarehouse(any());
     assertNotNull(existing.archivedAt);
     assertNotNull(newWarehouse.createdAt);
   }
 
   @Test
   void shouldFailWhenNoExistingWarehouseFound() {
-    when(warehouseStore.findByBusinessUnitCode("MWH.999")).thenReturn(null);
-
     Warehouse newWarehouse = createWarehouse("MWH.999", "AMSTERDAM-001", 50, 10);
 
     WarehouseValidationException ex =
         assertThrows(WarehouseValidationException.class, () -> useCase.replace(newWarehouse));
 
     assert ex.getMessage().contains("No active warehouse found");
-    verify(warehouseStore, never()).update(any());
     verify(warehouseStore, never()).create(any());
   }
 
@@ -74,7 +85,7 @@ public class ReplaceWarehouseUseCaseTest {
     Warehouse existing = createWarehouse("MWH.001", "ZWOLLE-001", 100, 50);
     existing.createdAt = LocalDateTime.of(2024, 7, 1, 0, 0);
 
-    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(existing);
+    stubActive(existing);
 
     // New capacity (30) is less than old stock (50)
     Warehouse newWarehouse = createWarehouse("MWH.001", "AMSTERDAM-001", 30, 50);
@@ -83,7 +94,8 @@ public class ReplaceWarehouseUseCaseTest {
         assertThrows(WarehouseValidationException.class, () -> useCase.replace(newWarehouse));
 
     assert ex.getMessage().contains("cannot accommodate the stock");
-    verify(warehouseStore, never()).update(any());
+    // the failed validation leaves the existing warehouse active
+    assertNull(existing.archivedAt);
     verify(warehouseStore, never()).create(any());
   }
 
@@ -92,7 +104,7 @@ public class ReplaceWarehouseUseCaseTest {
     Warehouse existing = createWarehouse("MWH.001", "ZWOLLE-001", 100, 10);
     existing.createdAt = LocalDateTime.of(2024, 7, 1, 0, 0);
 
-    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(existing);
+    stubActive(existing);
 
     // New stock (20) does not match old stock (10)
     Warehouse newWarehouse = createWarehouse("MWH.001", "AMSTERDAM-001", 50, 20);
@@ -101,7 +113,8 @@ public class ReplaceWarehouseUseCaseTest {
         assertThrows(WarehouseValidationException.class, () -> useCase.replace(newWarehouse));
 
     assert ex.getMessage().contains("must match the stock");
-    verify(warehouseStore, never()).update(any());
+    // the failed validation leaves the existing warehouse active
+    assertNull(existing.archivedAt);
     verify(warehouseStore, never()).create(any());
   }
 
@@ -110,7 +123,7 @@ public class ReplaceWarehouseUseCaseTest {
     Warehouse existing = createWarehouse("MWH.001", "ZWOLLE-001", 100, 10);
     existing.createdAt = LocalDateTime.of(2024, 7, 1, 0, 0);
 
-    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(existing);
+    stubActive(existing);
     when(locationResolver.resolveByIdentifier("INVALID-LOC")).thenReturn(null);
 
     Warehouse newWarehouse = createWarehouse("MWH.001", "INVALID-LOC", 50, 10);
@@ -126,14 +139,14 @@ public class ReplaceWarehouseUseCaseTest {
     Warehouse existing = createWarehouse("MWH.001", "ZWOLLE-001", 100, 10);
     existing.createdAt = LocalDateTime.of(2024, 7, 1, 0, 0);
 
-    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(existing);
+    stubActive(existing);
     when(locationResolver.resolveByIdentifier("TILBURG-001"))
         .thenReturn(new Location("TILBURG-001", 1, 40));
 
     // Tilburg already has 1 warehouse (max is 1), and the archived one was at ZWOLLE
     Warehouse existingAtTilburg = createWarehouse("MWH.023", "TILBURG-001", 30, 27);
-    when(warehouseStore.findActiveByLocation("TILBURG-001"))
-        .thenReturn(List.of(existingAtTilburg));
+    when(locationUsageStore.lockUsage("TILBURG-001"))
+        .thenReturn(usageOf("TILBURG-001", existingAtTilburg));
 
     Warehouse newWarehouse = createWarehouse("MWH.001", "TILBURG-001", 10, 10);
 
@@ -141,8 +154,8 @@ public class ReplaceWarehouseUseCaseTest {
         assertThrows(WarehouseValidationException.class, () -> useCase.replace(newWarehouse));
 
     assert ex.getMessage().contains("Maximum number of warehouses");
-    // update should have been called (archive step) before the location check
-    verify(warehouseStore, times(1)).update(any());
+    // the existing warehouse is archived before the location check
+    assertNotNull(existing.archivedAt);
   }
 
   @Test
@@ -150,15 +163,15 @@ public class ReplaceWarehouseUseCaseTest {
     Warehouse existing = createWarehouse("MWH.001", "ZWOLLE-001", 100, 10);
     existing.createdAt = LocalDateTime.of(2024, 7, 1, 0, 0);
 
-    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(existing);
+    stubActive(existing);
     // EINDHOVEN-001 has maxCapacity=70
     when(locationResolver.resolveByIdentifier("EINDHOVEN-001"))
         .thenReturn(new Location("EINDHOVEN-001", 3, 70));
 
     // There is already a warehouse consuming 60 of the 70 capacity
     Warehouse existingAtEindhoven = createWarehouse("MWH.050", "EINDHOVEN-001", 60, 20);
-    when(warehouseStore.findActiveByLocation("EINDHOVEN-001"))
-        .thenReturn(List.of(existingAtEindhoven));
+    when(locationUsageStore.lockUsage("EINDHOVEN-001"))
+        .thenReturn(usageOf("EINDHOVEN-001", existingAtEindhoven));
 
     // New warehouse wants 20 capacity, but only 10 is available (70-60=10)
     Warehouse newWarehouse = createWarehouse("MWH.001", "EINDHOVEN-001", 20, 10);
@@ -167,8 +180,8 @@ public class ReplaceWarehouseUseCaseTest {
         assertThrows(WarehouseValidationException.class, () -> useCase.replace(newWarehouse));
 
     assert ex.getMessage().contains("would exceed the maximum capacity");
-    // Archive step should have been called before the capacity check
-    verify(warehouseStore, times(1)).update(any());
+    // Archive step should have been applied before the capacity check
+    assertNotNull(existing.archivedAt);
     verify(warehouseStore, never()).create(any());
   }
 
@@ -177,21 +190,57 @@ public class ReplaceWarehouseUseCaseTest {
     Warehouse existing = createWarehouse("MWH.001", "AMSTERDAM-001", 50, 10);
     existing.createdAt = LocalDateTime.of(2024, 7, 1, 0, 0);
 
-    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(existing);
+    stubActive(existing);
     when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
         .thenReturn(new Location("AMSTERDAM-001", 5, 100));
     // After archiving MWH.001, location query returns the remaining warehouses
-    when(warehouseStore.findActiveByLocation("AMSTERDAM-001"))
-        .thenReturn(Collections.emptyList());
+    when(locationUsageStore.lockUsage("AMSTERDAM-001")).thenReturn(usageOf("AMSTERDAM-001"));
 
     Warehouse newWarehouse = createWarehouse("MWH.001", "AMSTERDAM-001", 80, 10);
 
     useCase.replace(newWarehouse);
 
-    verify(warehouseStore).update(existing);
+    assertNotNull(existing.archivedAt);
     verify(warehouseStore).create(newWarehouse);
   }
 
+  @Test
+  void shouldLockBothLocationsInOrderBeforeArchiving() {
+    Warehouse existing = createWarehouse("MWH.001", "ZWOLLE-001", 100, 10);
+    existing.createdAt = LocalDateTime.of(2024, 7, 1, 0, 0);
+
+    InOrder order = Mockito.inOrder(locationUsageStore);
+    when(warehouseStore.modifyActive(eq("MWH.001"), any()))
+        .thenAnswer(
+            invocation -> {
+              Consumer<Warehouse> change = invocation.getArgument(1);
+              change.accept(existing);
+              // both rows are locked before the store releases the old location's usage
+              order.verify(locationUsageStore).lockUsage("AMSTERDAM-001");
+              order.verify(locationUsageStore).lockUsage("ZWOLLE-001");
+              return existing;
+            });
+    when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+        .thenReturn(new Location("AMSTERDAM-001", 5, 100));
+    when(locationUsageStore.lockUsage("AMSTERDAM-001")).thenReturn(usageOf("AMSTERDAM-001"));
+
+    useCase.replace(createWarehouse("MWH.001", "AMSTERDAM-001", 50, 10));
+
+    // and the new location is read again once the old warehouse is archived
+    order.verify(locationUsageStore).lockUsage("AMSTERDAM-001");
+  }
+
+  /** Lets the store apply the use case's change to {@code existing}, as the real adapter does. */
+  private void stubActive(Warehouse existing) {
+    when(warehouseStore.modifyActive(eq(existing.businessUnitCode), any()))
+        .thenAnswer(
+            invocation -> {
+              Consumer<Warehouse> change = invocation.getArgument(1);
+              change.accept(existing);
+              return existing;
+            });
+  }
+
   private Warehouse createWarehouse(String buCode, String location, int capacity, int stock) {
     Warehouse w = new Warehouse();
     w.businessUnitCode = buCode;
@@ -200,4 +249,12 @@ public class ReplaceWarehouseUseCaseTest {
     w.stock = stock;
     return w;
   }
+
+  private LocationUsage usageOf(String location, Warehouse... active) {
+    int capacity = 0;
+    for (Warehouse w : active) {
+      capacity += w.capacity;
+    }
+    return new LocationUsage(location, active.length, capacity);
+  }
 }